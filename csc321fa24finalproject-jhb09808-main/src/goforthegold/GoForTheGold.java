@@ -1,5 +1,7 @@
 package goforthegold;
 
+import goforthegold.controller.ConsoleRenderer;
+import goforthegold.controller.GameEventSink;
 import goforthegold.controller.GameManager;
 import goforthegold.model.BadGuy;
 import goforthegold.model.Coin;
@@ -16,7 +18,7 @@ import java.util.Scanner;
 public class GoForTheGold {
     public static void main(String[] args) {
         Scanner scanner = new Scanner(System.in);
-        System.out.println("Choose game mode (1: Console, 2: GUI):");
+        System.out.println("Choose game mode (1: Console, 2: GUI, 3: Live console):");
         int modeChoice = scanner.nextInt();
 
         System.out.println("Enter grid size (5-20):");
@@ -26,7 +28,7 @@ public class GoForTheGold {
         if (modeChoice == 2) {
             launchGUI(gridSize);
         } else {
-            playConsoleGame(scanner, gridSize);
+            playConsoleGame(scanner, gridSize, modeChoice == 3);
         }
 
         scanner.close();
@@ -46,8 +48,10 @@ public class GoForTheGold {
      *
      * @param scanner Scanner for user input
      * @param gridSize The size of the game grid
+     * @param live Whether to redraw the board in place instead of printing
+     *             every move
      */
-    private static void playConsoleGame(Scanner scanner, int gridSize) {
+    private static void playConsoleGame(Scanner scanner, int gridSize, boolean live) {
         System.out.println("Choose difficulty (1: Easy, 2: Medium, 3: Hard):");
         int difficultyChoice = scanner.nextInt();
         Difficulty difficulty = Difficulty.MEDIUM;
@@ -61,11 +65,22 @@ public class GoForTheGold {
 
         printInitialGameState(game);
 
+        ConsoleRenderer renderer = null;
+        if (live) {
+            game.setEventSink(GameEventSink.SILENT);
+            renderer = new ConsoleRenderer(System.out, true);
+            renderer.render(game);
+        }
+
         int moveCount = 0;
         while (!game.isGameOver()) {
             if (game.makeMove()) {
                 moveCount++;
-                printGameState(game, moveCount);
+                if (live) {
+                    renderer.render(game);
+                } else {
+                    printGameState(game, moveCount);
+                }
             } else {
                 System.out.println("Robot couldn't move!");
                 break;
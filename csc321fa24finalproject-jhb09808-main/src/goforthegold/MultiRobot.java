@@ -0,0 +1,40 @@
+package goforthegold;
+
+import goforthegold.controller.MultiRobotGame;
+import goforthegold.model.Difficulty;
+
+/**
+ * Command line entry point that races many robots in one world with
+ * cooperative space-time planning and reports how it went.
+ *
+ * Usage: java goforthegold.MultiRobot [robots] [gridSize] [seed] [threads] [maxTicks]
+ */
+public class MultiRobot {
+    public static void main(String[] args) {
+        int robots = args.length > 0 ? Integer.parseInt(args[0]) : 24;
+        int gridSize = args.length > 1 ? Integer.parseInt(args[1]) : 40;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 42L;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        int maxTicks = args.length > 4 ? Integer.parseInt(args[4]) : 10000;
+        gridSize = Math.max(5, gridSize);
+
+        System.out.println(robots + " robots on a " + gridSize + "x" + gridSize + " grid, seed " + seed
+                + ", " + threads + " planner threads");
+
+        try (MultiRobotGame game = new MultiRobotGame(gridSize, robots, Difficulty.MEDIUM, seed, threads)) {
+            long start = System.nanoTime();
+            int ticks = game.playToEnd(maxTicks);
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            int winner = game.getWinner();
+            System.out.println(winner >= 0 ? "Robot " + winner + " reached the gold after " + ticks + " ticks"
+                    : "Nobody reached the gold in " + ticks + " ticks");
+            for (int i = 0; i < game.getRobotCount(); i++) {
+                System.out.printf("Robot %2d: %2d coins, $%.2f left%n", i, game.getCoinsCollected(i),
+                        game.getRobot(i).getMoney());
+            }
+            System.out.println("Coins left: " + game.getCoins().size() + ", collisions: " + game.getCollisions());
+            System.out.printf("Elapsed: %.3f s (%.1f ticks/sec)%n", seconds, ticks / seconds);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package goforthegold;
+
+import goforthegold.controller.GameEventSink;
+import goforthegold.controller.GameManager;
+import goforthegold.controller.GameOutcome;
+import goforthegold.model.Difficulty;
+import goforthegold.model.RandomSource;
+import goforthegold.replay.ReplayFrame;
+import goforthegold.replay.ReplayReader;
+import goforthegold.replay.ReplayRecorder;
+import goforthegold.view.FrameExporter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Command line entry point that records a headless game to a replay file,
+ * prints a recorded game at any tick, or exports it as PNG frames.
+ *
+ * Usage: java goforthegold.Replay record <file> [gridSize] [difficulty] [seed] [swarmSize]
+ *        java goforthegold.Replay show <file> <tick>
+ *        java goforthegold.Replay export <file> <directory> [cellSize] [step] [threads]
+ */
+public class Replay {
+    public static void main(String[] args) throws IOException {
+        if (args.length >= 2 && args[0].equals("record")) {
+            record(args);
+        } else if (args.length >= 3 && args[0].equals("show")) {
+            show(Path.of(args[1]), Integer.parseInt(args[2]));
+        } else if (args.length >= 3 && args[0].equals("export")) {
+            export(args);
+        } else {
+            System.out.println("Usage: java goforthegold.Replay record <file> [gridSize] [difficulty] [seed] [swarmSize]");
+            System.out.println("       java goforthegold.Replay show <file> <tick>");
+            System.out.println("       java goforthegold.Replay export <file> <directory> [cellSize] [step] [threads]");
+        }
+    }
+
+    private static void record(String[] args) throws IOException {
+        Path path = Path.of(args[1]);
+        int gridSize = Math.max(5, args.length > 2 ? Integer.parseInt(args[2]) : 10);
+        Difficulty difficulty = args.length > 3 ? Difficulty.valueOf(args[3].toUpperCase()) : Difficulty.MEDIUM;
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : RandomSource.create().nextLong();
+        int swarmSize = args.length > 5 ? Integer.parseInt(args[5]) : 0;
+
+        GameManager game = new GameManager(gridSize, difficulty, seed);
+        game.setEventSink(GameEventSink.SILENT);
+        if (swarmSize > 0) {
+            game.spawnSwarm(swarmSize);
+        }
+        GameOutcome outcome;
+        try (ReplayRecorder recorder = new ReplayRecorder(path, ReplayRecorder.DEFAULT_SNAPSHOT_INTERVAL, GameEventSink.SILENT)) {
+            recorder.attach(game);
+            outcome = game.playToEnd();
+        }
+        System.out.println("Recorded " + game.getMoveCount() + " moves (" + outcome + ", seed " + seed + ") to "
+                + path + " in " + Files.size(path) + " bytes");
+    }
+
+    private static void show(Path path, int tick) throws IOException {
+        ReplayReader reader = new ReplayReader(path);
+        ReplayFrame frame = reader.seek(Math.max(0, Math.min(tick, reader.getTickCount())));
+        int size = frame.getSize();
+        char[][] board = new char[size][size];
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                board[x][y] = frame.isObstacle(x, y) ? '#' : frame.isVisited(x, y) ? '.' : ' ';
+            }
+        }
+        for (int i = 0; i < frame.getCoinCount(); i++) {
+            board[frame.getCoinX(i)][frame.getCoinY(i)] = 'C';
+        }
+        for (int i = 0; i < frame.getPowerUpCount(); i++) {
+            board[frame.getPowerUpX(i)][frame.getPowerUpY(i)] = 'P';
+        }
+        for (int i = 0; i < frame.getEnemyCount(); i++) {
+            board[frame.getEnemyX(i)][frame.getEnemyY(i)] = 'B';
+        }
+        board[frame.getGoldX()][frame.getGoldY()] = 'G';
+        board[frame.getRobotX()][frame.getRobotY()] = 'R';
+
+        System.out.println("Seed " + reader.getSeed() + ", " + reader.getDifficulty() + ", tick "
+                + frame.getTick() + " of " + reader.getTickCount());
+        for (int y = 0; y < size; y++) {
+            StringBuilder row = new StringBuilder();
+            for (int x = 0; x < size; x++) {
+                row.append(board[x][y]).append(' ');
+            }
+            System.out.println(row);
+        }
+        System.out.printf("Money: $%.2f  Moves: %d  Score: %d  Coins: %d%n",
+                frame.getMoney(), frame.getMoveCount(), frame.getScore(), frame.getCoinsCollected());
+    }
+
+    private static void export(String[] args) throws IOException {
+        System.setProperty("java.awt.headless", "true");
+        ReplayReader reader = new ReplayReader(Path.of(args[1]));
+        Path directory = Path.of(args[2]);
+        int cellSize = args.length > 3 ? Integer.parseInt(args[3]) : 20;
+        int step = args.length > 4 ? Integer.parseInt(args[4]) : 1;
+        int threads = args.length > 5 ? Integer.parseInt(args[5]) : Runtime.getRuntime().availableProcessors();
+
+        long start = System.nanoTime();
+        int frames = new FrameExporter(reader, cellSize).export(directory, 0, reader.getTickCount(), step, threads);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Exported %d frames to %s in %.3f s (%.1f frames/sec)%n",
+                frames, directory, seconds, frames / seconds);
+    }
+}
@@ -0,0 +1,61 @@
+package goforthegold;
+
+import goforthegold.model.Score;
+import goforthegold.model.ScoreKeeper;
+import goforthegold.model.ScoreStore;
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Command line entry point that looks up scores in a binary score store,
+ * or imports a score export into the high scores. The store is opened
+ * read-only, so looking up is safe while games are running.
+ *
+ * Usage: java goforthegold.Scores <store> [player] [limit]
+ *        java goforthegold.Scores import <file> [scoreFile] [threads]
+ */
+public class Scores {
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: java goforthegold.Scores <store> [player] [limit]");
+            System.out.println("       java goforthegold.Scores import <file> [scoreFile] [threads]");
+            return;
+        }
+        if (args[0].equals("import") && args.length >= 2) {
+            importScores(args);
+            return;
+        }
+        try (ScoreStore store = new ScoreStore(Path.of(args[0]), true)) {
+            if (args.length < 2) {
+                System.out.println(store.size() + " scores from " + store.getPlayers() + " players");
+                return;
+            }
+            String player = args[1];
+            int limit = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+            Score best = store.getBestScore(player);
+            if (best == null) {
+                System.out.println("No scores for " + player);
+                return;
+            }
+            System.out.println(player + ": " + store.getPlayerCount(player) + " games, best " + best.getScore()
+                    + (best.getDifficulty() == null ? "" : " (" + best.getDifficulty() + ")"));
+            for (Score score : store.getPlayerScores(player, limit)) {
+                System.out.println("  " + score.getScore()
+                        + (score.getDifficulty() == null ? "" : " " + score.getDifficulty()));
+            }
+        }
+    }
+
+    private static void importScores(String[] args) throws IOException {
+        Path file = Path.of(args[1]);
+        Path scoreFile = Path.of(args.length > 2 ? args[2] : "top_scores.txt");
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        try (ScoreKeeper keeper = new ScoreKeeper(scoreFile, ScoreKeeper.DEFAULT_SYNC_EVERY, ScoreKeeper.DEFAULT_COMPACT_EVERY)) {
+            long begin = System.nanoTime();
+            long count = keeper.importScores(file, threads);
+            double seconds = (System.nanoTime() - begin) / 1e9;
+            System.out.printf("Imported %d scores in %.2f s (%.0f scores/sec), %d in total%n",
+                    count, seconds, count / seconds, keeper.getScoreCount());
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package goforthegold;
+
+import goforthegold.controller.GameEventSink;
+import goforthegold.controller.GameManager;
+import goforthegold.controller.SimulationStats;
+import goforthegold.model.Difficulty;
+
+/**
+ * Command line entry point that plays many games headless and reports
+ * throughput and outcome statistics.
+ *
+ * Usage: java goforthegold.Simulation [games] [gridSize] [difficulty] [swarmSize] [buffered]
+ */
+public class Simulation {
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int gridSize = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        Difficulty difficulty = args.length > 2 ? Difficulty.valueOf(args[2].toUpperCase()) : Difficulty.MEDIUM;
+        int swarmSize = args.length > 3 ? Integer.parseInt(args[3]) : 0;
+        boolean buffered = args.length > 4 && args[4].equalsIgnoreCase("buffered");
+        gridSize = Math.max(5, gridSize);
+
+        System.out.println("Simulating " + games + " games on a " + gridSize + "x" + gridSize
+                + " grid at " + difficulty + " difficulty"
+                + (swarmSize > 0 ? " with a swarm of " + swarmSize + " bad guys" : "") + "...");
+
+        SimulationStats stats = new SimulationStats();
+        long start = System.nanoTime();
+        for (int i = 0; i < games; i++) {
+            GameManager game = new GameManager(gridSize, difficulty);
+            game.setEventSink(GameEventSink.SILENT);
+            if (swarmSize > 0) {
+                game.spawnSwarm(swarmSize);
+                game.setDoubleBufferedBadGuys(buffered);
+            }
+            game.playToEnd();
+            stats.record(game);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.println(stats);
+        System.out.printf("Elapsed: %.3f s (%.1f games/sec)%n", seconds, games / seconds);
+    }
+}
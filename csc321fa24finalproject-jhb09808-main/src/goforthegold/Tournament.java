@@ -0,0 +1,38 @@
+package goforthegold;
+
+import goforthegold.controller.SimulationStats;
+import goforthegold.controller.TournamentRunner;
+import goforthegold.model.Difficulty;
+import java.util.Map;
+
+/**
+ * Command line entry point for Monte Carlo tournaments across all difficulties.
+ *
+ * Usage: java goforthegold.Tournament [gamesPerDifficulty] [gridSize] [seed] [threads]
+ */
+public class Tournament {
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 10000;
+        int gridSize = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 42L;
+        int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        gridSize = Math.max(5, gridSize);
+
+        System.out.println("Tournament: " + games + " games per difficulty, " + gridSize + "x" + gridSize
+                + " grid, seed " + seed + ", " + threads + " threads");
+
+        TournamentRunner runner = new TournamentRunner(gridSize, games, threads);
+        long start = System.nanoTime();
+        Map<Difficulty, SimulationStats> results = runner.run(seed);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("%-8s %10s %10s %14s %10s%n", "Level", "Games", "Win rate", "Avg score", "Avg moves");
+        for (Map.Entry<Difficulty, SimulationStats> entry : results.entrySet()) {
+            SimulationStats stats = entry.getValue();
+            System.out.printf("%-8s %10d %9.2f%% %14.1f %10.2f%n", entry.getKey(), stats.getGames(),
+                    stats.getWinRate() * 100, stats.getAverageScore(), stats.getAverageMoves());
+        }
+        int totalGames = games * Difficulty.values().length;
+        System.out.printf("Elapsed: %.3f s (%.1f games/sec)%n", seconds, totalGames / seconds);
+    }
+}
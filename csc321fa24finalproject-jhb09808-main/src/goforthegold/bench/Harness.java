@@ -0,0 +1,230 @@
+package goforthegold.bench;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * A small benchmark harness for the suites in this package.
+ *
+ * Each benchmark is a call that is first run for a warm-up period, so the
+ * JIT has compiled it, and then timed call by call for a measurement
+ * period. A row reports throughput, latency percentiles, the bytes the
+ * calling thread allocated per operation, the allocation rate and the
+ * collections that ran while measuring. A call may perform several
+ * operations, in which case every figure is per operation.
+ *
+ * Results are only as steady as the machine: run with nothing else busy
+ * and compare rows from the same run.
+ */
+public class Harness {
+    public static final long DEFAULT_WARMUP_MILLIS = 1000;
+    public static final long DEFAULT_MEASURE_MILLIS = 2000;
+
+    private static volatile Object sink;
+    private static volatile long longSink;
+
+    private final long warmupNanos;
+    private final long measureNanos;
+    private final ThreadMXBean threads;
+    private final boolean allocationSupported;
+
+    /**
+     * Constructs a new Harness.
+     * @param warmupMillis How long to run each benchmark before measuring
+     * @param measureMillis How long to measure each benchmark
+     */
+    public Harness(long warmupMillis, long measureMillis) {
+        this.warmupNanos = warmupMillis * 1_000_000L;
+        this.measureNanos = measureMillis * 1_000_000L;
+        threads = ManagementFactory.getThreadMXBean();
+        allocationSupported = threads instanceof com.sun.management.ThreadMXBean allocation
+                && allocation.isThreadAllocatedMemorySupported();
+        if (allocationSupported) {
+            ((com.sun.management.ThreadMXBean) threads).setThreadAllocatedMemoryEnabled(true);
+        }
+    }
+
+    /**
+     * Keeps a result alive so the JIT cannot drop the work that made it.
+     * @param value The result
+     */
+    public static void consume(Object value) {
+        sink = value;
+    }
+
+    /**
+     * Keeps a result alive so the JIT cannot drop the work that made it.
+     * @param value The result
+     */
+    public static void consume(long value) {
+        longSink = value;
+    }
+
+    /**
+     * Parses a comma separated list of ints from the command line.
+     * @param list The list, e.g. "20,64,256"
+     * @return The values in order
+     */
+    public static int[] parseList(String list) {
+        return Arrays.stream(list.split(",")).map(String::trim).mapToInt(Integer::parseInt).toArray();
+    }
+
+    /**
+     * Prints the column headings for {@link #run} rows.
+     */
+    public void printHeader() {
+        System.out.printf("%-44s %8s %12s %10s %10s %10s %10s %10s %9s %5s%n", "Benchmark", "Samples", "ops/sec",
+                "p50 us", "p90 us", "p99 us", "max us", "B/op", "MB/sec", "GCs");
+    }
+
+    /**
+     * Warms up, measures and prints one benchmark.
+     * @param name The name printed in the row
+     * @param opsPerCall How many operations one call performs
+     * @param call The work to measure; its result is consumed
+     * @return The measurement
+     */
+    public Result run(String name, int opsPerCall, Supplier<?> call) {
+        long end = System.nanoTime() + warmupNanos;
+        long warmupCalls = 0;
+        do {
+            consume(call.get());
+            warmupCalls++;
+        } while (System.nanoTime() < end);
+
+        // Sized up front so growing it is not counted as the call's garbage;
+        // calls beyond it still count towards throughput
+        long expected = warmupNanos == 0 ? 0 : warmupCalls * 2 * (measureNanos / Math.max(1, warmupNanos) + 1);
+        long[] samples = new long[(int) Math.max(1024, Math.min(1 << 24, expected))];
+        int count = 0;
+        long calls = 0;
+        long collections = collections();
+        long allocated = allocatedBytes();
+        long begin = System.nanoTime();
+        end = begin + measureNanos;
+        long now = begin;
+        do {
+            long start = now;
+            consume(call.get());
+            now = System.nanoTime();
+            if (count < samples.length) {
+                samples[count++] = now - start;
+            }
+            calls++;
+        } while (now < end);
+        long elapsed = now - begin;
+        allocated = allocatedBytes() - allocated;
+        collections = collections() - collections;
+
+        Arrays.sort(samples, 0, count);
+        long operations = calls * opsPerCall;
+        Result result = new Result(name, calls, operations * 1e9 / elapsed,
+                percentile(samples, count, 50) / opsPerCall, percentile(samples, count, 90) / opsPerCall,
+                percentile(samples, count, 99) / opsPerCall, (double) samples[count - 1] / opsPerCall,
+                allocationSupported ? (double) allocated / operations : Double.NaN,
+                allocationSupported ? allocated * 1e9 / elapsed / (1 << 20) : Double.NaN, collections);
+        System.out.printf("%-44s %8d %12.1f %10.3f %10.3f %10.3f %10.3f %10.1f %9.1f %5d%n", name, calls,
+                result.getOpsPerSecond(), result.getP50Nanos() / 1e3, result.getP90Nanos() / 1e3,
+                result.getP99Nanos() / 1e3, result.getMaxNanos() / 1e3, result.getBytesPerOp(),
+                result.getAllocationRate(), collections);
+        return result;
+    }
+
+    private static double percentile(long[] sorted, int count, double percentile) {
+        int index = (int) Math.ceil(percentile / 100 * count) - 1;
+        return sorted[Math.max(0, Math.min(count - 1, index))];
+    }
+
+    private long allocatedBytes() {
+        return allocationSupported ? ((com.sun.management.ThreadMXBean) threads).getCurrentThreadAllocatedBytes() : 0;
+    }
+
+    private static long collections() {
+        long total = 0;
+        List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+        for (GarbageCollectorMXBean collector : collectors) {
+            total += Math.max(0, collector.getCollectionCount());
+        }
+        return total;
+    }
+
+    /**
+     * One benchmark's measurement, with every figure per operation.
+     */
+    public static final class Result {
+        private final String name;
+        private final long samples;
+        private final double opsPerSecond;
+        private final double p50Nanos;
+        private final double p90Nanos;
+        private final double p99Nanos;
+        private final double maxNanos;
+        private final double bytesPerOp;
+        private final double allocationRate;
+        private final long collections;
+
+        Result(String name, long samples, double opsPerSecond, double p50Nanos, double p90Nanos, double p99Nanos,
+               double maxNanos, double bytesPerOp, double allocationRate, long collections) {
+            this.name = name;
+            this.samples = samples;
+            this.opsPerSecond = opsPerSecond;
+            this.p50Nanos = p50Nanos;
+            this.p90Nanos = p90Nanos;
+            this.p99Nanos = p99Nanos;
+            this.maxNanos = maxNanos;
+            this.bytesPerOp = bytesPerOp;
+            this.allocationRate = allocationRate;
+            this.collections = collections;
+        }
+
+        //Getters
+        public String getName() {
+            return name;
+        }
+
+        public long getSamples() {
+            return samples;
+        }
+
+        public double getOpsPerSecond() {
+            return opsPerSecond;
+        }
+
+        public double getP50Nanos() {
+            return p50Nanos;
+        }
+
+        public double getP90Nanos() {
+            return p90Nanos;
+        }
+
+        public double getP99Nanos() {
+            return p99Nanos;
+        }
+
+        public double getMaxNanos() {
+            return maxNanos;
+        }
+
+        public double getBytesPerOp() {
+            return bytesPerOp;
+        }
+
+        /**
+         * Gets the allocation rate in MB per second, or NaN if the JVM
+         * cannot count allocated bytes.
+         * @return The allocation rate
+         */
+        public double getAllocationRate() {
+            return allocationRate;
+        }
+
+        public long getCollections() {
+            return collections;
+        }
+    }
+}
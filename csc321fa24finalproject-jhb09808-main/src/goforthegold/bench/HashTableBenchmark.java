@@ -0,0 +1,170 @@
+package goforthegold.bench;
+
+import goforthegold.model.HashTable;
+import goforthegold.model.RandomSource;
+import java.util.HashMap;
+import java.util.function.Supplier;
+import java.util.random.RandomGenerator;
+
+/**
+ * Compares the project's HashTable with java.util.HashMap on the key
+ * pattern the game uses: "x,y" strings naming grid cells.
+ *
+ * Keys are the cells of a square grid, visited either row by row (the
+ * order a robot sweeping the board produces) or in a seeded random order.
+ * Each benchmark call performs one operation per key and every figure is
+ * reported per operation. Keys are built before measuring, except in the
+ * "build key" rows, which build each key with string concatenation the way
+ * the game's callers do.
+ *
+ * Usage: java goforthegold.bench.HashTableBenchmark [keyCounts] [warmupMillis] [measureMillis] [seed]
+ *        where keyCounts is a comma separated list (default 1000,100000 1000 2000 42)
+ */
+public class HashTableBenchmark {
+
+    /**
+     * The operations measured, so both maps run the same code.
+     */
+    private interface Table {
+        void put(String key, Boolean value);
+
+        Boolean get(String key);
+
+        void remove(String key);
+    }
+
+    private static final class ProjectTable implements Table {
+        private final HashTable<String, Boolean> table = new HashTable<>();
+
+        @Override
+        public void put(String key, Boolean value) {
+            table.put(key, value);
+        }
+
+        @Override
+        public Boolean get(String key) {
+            return table.get(key);
+        }
+
+        @Override
+        public void remove(String key) {
+            table.remove(key);
+        }
+    }
+
+    private static final class JavaTable implements Table {
+        private final HashMap<String, Boolean> table = new HashMap<>();
+
+        @Override
+        public void put(String key, Boolean value) {
+            table.put(key, value);
+        }
+
+        @Override
+        public Boolean get(String key) {
+            return table.get(key);
+        }
+
+        @Override
+        public void remove(String key) {
+            table.remove(key);
+        }
+    }
+
+    public static void main(String[] args) {
+        int[] keyCounts = Harness.parseList(args.length > 0 ? args[0] : "1000,100000");
+        long warmup = args.length > 1 ? Long.parseLong(args[1]) : Harness.DEFAULT_WARMUP_MILLIS;
+        long measure = args.length > 2 ? Long.parseLong(args[2]) : Harness.DEFAULT_MEASURE_MILLIS;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 42;
+
+        Harness harness = new Harness(warmup, measure);
+        harness.printHeader();
+        for (int keyCount : keyCounts) {
+            int side = (int) Math.ceil(Math.sqrt(keyCount));
+            int[] sequential = new int[keyCount];
+            for (int i = 0; i < keyCount; i++) {
+                sequential[i] = i;
+            }
+            int[] shuffled = shuffle(sequential, RandomSource.create(seed));
+            String[] sequentialKeys = keys(sequential, side, 0);
+            String[] randomKeys = keys(shuffled, side, 0);
+            // The same cells shifted off the filled part of the board, so every lookup misses
+            String[] missKeys = keys(shuffled, side, side);
+            String[] halfMissKeys = new String[keyCount];
+            for (int i = 0; i < keyCount; i++) {
+                halfMissKeys[i] = i % 2 == 0 ? randomKeys[i] : missKeys[i];
+            }
+
+            for (String implementation : new String[]{"HashTable", "HashMap"}) {
+                Supplier<Table> tables = implementation.equals("HashTable") ? ProjectTable::new : JavaTable::new;
+                String prefix = implementation + " n=" + keyCount + " ";
+                Table filled = fill(tables.get(), randomKeys);
+
+                harness.run(prefix + "put from empty, sequential", keyCount, () -> fill(tables.get(), sequentialKeys));
+                harness.run(prefix + "put from empty, random", keyCount, () -> fill(tables.get(), randomKeys));
+                harness.run(prefix + "get all hit, sequential", keyCount, () -> lookUp(filled, sequentialKeys));
+                harness.run(prefix + "get all hit, random", keyCount, () -> lookUp(filled, randomKeys));
+                harness.run(prefix + "get half hit, random", keyCount, () -> lookUp(filled, halfMissKeys));
+                harness.run(prefix + "get all miss, random", keyCount, () -> lookUp(filled, missKeys));
+                harness.run(prefix + "get all hit, build key", keyCount, () -> {
+                    long hits = 0;
+                    for (int cell : shuffled) {
+                        if (filled.get(cell / side + "," + cell % side) != null) {
+                            hits++;
+                        }
+                    }
+                    return hits;
+                });
+                harness.run(prefix + "remove half and put back", keyCount, () -> {
+                    // Removes every other key, then restores it, so the size stays steady
+                    for (int i = 0; i < keyCount; i += 2) {
+                        filled.remove(randomKeys[i]);
+                    }
+                    for (int i = 0; i < keyCount; i += 2) {
+                        filled.put(randomKeys[i], Boolean.TRUE);
+                    }
+                    return filled;
+                });
+            }
+        }
+    }
+
+    private static Table fill(Table table, String[] keys) {
+        for (String key : keys) {
+            table.put(key, Boolean.TRUE);
+        }
+        return table;
+    }
+
+    private static long lookUp(Table table, String[] keys) {
+        long hits = 0;
+        for (String key : keys) {
+            if (table.get(key) != null) {
+                hits++;
+            }
+        }
+        return hits;
+    }
+
+    /**
+     * Names each cell "x,y", with cells numbered row by row.
+     */
+    private static String[] keys(int[] cells, int side, int offset) {
+        String[] keys = new String[cells.length];
+        for (int i = 0; i < cells.length; i++) {
+            keys[i] = (cells[i] / side + offset) + "," + (cells[i] % side);
+        }
+        return keys;
+    }
+
+    private static int[] shuffle(int[] values, RandomGenerator random) {
+        int[] shuffled = values.clone();
+        for (int i = shuffled.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = shuffled[i];
+            shuffled[i] = shuffled[j];
+            shuffled[j] = swap;
+        }
+        return shuffled;
+    }
+}
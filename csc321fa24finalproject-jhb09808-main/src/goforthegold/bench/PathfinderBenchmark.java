@@ -0,0 +1,225 @@
+package goforthegold.bench;
+
+import goforthegold.model.AStarPathfinder;
+import goforthegold.model.BadGuy;
+import goforthegold.model.ChaserBadGuy;
+import goforthegold.model.Coin;
+import goforthegold.model.FlowField;
+import goforthegold.model.Gold;
+import goforthegold.model.HashTable;
+import goforthegold.model.PatrolRoute;
+import goforthegold.model.RandomSource;
+import goforthegold.model.SafeMovePlanner;
+import goforthegold.model.World;
+import goforthegold.util.MazeGenerator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * Measures the game's path finding over grid sizes, world types, coin
+ * counts and bad guy counts: SafeMovePlanner.nextMove, which moves the
+ * robot every tick, FlowField.update and updateUntil, which the robot's
+ * field and patrol routes use, and AStarPathfinder.findPath.
+ *
+ * Every world and query is built from the seed, so two runs with the same
+ * arguments search exactly the same problems. Each benchmark cycles through
+ * a fixed set of start, goal, coin and bad guy placements so one lucky
+ * placement does not decide the result. A nextMove call is one tick of a
+ * walk, as in a game: the gold and coins stay put and the robot takes each
+ * planned move, starting over from the next start every few ticks.
+ *
+ * findPath checks whether a node is already queued with a linear scan of
+ * the open set, so a single search at 1024 already takes minutes. It is
+ * only measured up to findPathMaxSize; raise it to measure the larger
+ * sizes too.
+ *
+ * Usage: java goforthegold.bench.PathfinderBenchmark [sizes] [coins] [badGuys] [warmupMillis] [measureMillis] [seed] [findPathMaxSize]
+ *        where sizes, coins and badGuys are comma separated lists
+ *        (default 20,64,256,1024,4096 1,16 0,8 1000 2000 42 256)
+ */
+public class PathfinderBenchmark {
+    private static final int QUERIES = 16;
+    private static final int WALK_TICKS = 32;
+
+    /**
+     * The kinds of world searched.
+     */
+    enum WorldType {
+        /** The game's own world: about one cell in ten is an obstacle. */
+        RANDOM,
+        /** A perfect maze carved by MazeGenerator into an open world. */
+        MAZE
+    }
+
+    public static void main(String[] args) {
+        int[] sizes = Harness.parseList(args.length > 0 ? args[0] : "20,64,256,1024,4096");
+        int[] coinCounts = Harness.parseList(args.length > 1 ? args[1] : "1,16");
+        int[] badGuyCounts = Harness.parseList(args.length > 2 ? args[2] : "0,8");
+        long warmup = args.length > 3 ? Long.parseLong(args[3]) : Harness.DEFAULT_WARMUP_MILLIS;
+        long measure = args.length > 4 ? Long.parseLong(args[4]) : Harness.DEFAULT_MEASURE_MILLIS;
+        long seed = args.length > 5 ? Long.parseLong(args[5]) : 42;
+        int findPathMaxSize = args.length > 6 ? Integer.parseInt(args[6]) : 256;
+
+        Harness harness = new Harness(warmup, measure);
+        harness.printHeader();
+        for (int size : sizes) {
+            for (WorldType type : WorldType.values()) {
+                World world = createWorld(type, size, seed);
+                for (int coins : coinCounts) {
+                    for (int badGuys : badGuyCounts) {
+                        Query[] queries = createQueries(world, coins, badGuys, RandomSource.create(seed + size + coins * 31L + badGuys));
+                        String cases = String.format("%s size=%d coins=%d badGuys=%d", type, size, coins, badGuys);
+                        if (size <= findPathMaxSize) {
+                            HashTable<String, Boolean> visited = new HashTable<>();
+                            int[] next = {0};
+                            harness.run("findPath " + cases, 1, () -> {
+                                Query query = queries[next[0]++ % QUERIES];
+                                return AStarPathfinder.findPath(world, query.startX, query.startY, query.goalX, query.goalY,
+                                        query.coins, query.badGuys, visited);
+                            });
+                        }
+                        Walk walk = new Walk(world, queries);
+                        harness.run("nextMove " + cases, 1, walk::tick);
+                    }
+                }
+
+                Query[] queries = createQueries(world, 0, 0, RandomSource.create(seed + size));
+                FlowField field = new FlowField(size);
+                int[] next = {0};
+                harness.run(String.format("update %s size=%d", type, size), 1, () -> {
+                    Query query = queries[next[0]++ % QUERIES];
+                    field.update(world, query.startX, query.startY);
+                    return field.getDistance(query.goalX, query.goalY);
+                });
+                harness.run(String.format("updateUntil %s size=%d", type, size), 1, () -> {
+                    Query query = queries[next[0]++ % QUERIES];
+                    field.updateUntil(world, query.goalX, query.goalY, query.startX, query.startY);
+                    return field.getDistance(query.startX, query.startY);
+                });
+            }
+        }
+    }
+
+    /**
+     * Builds a world from the seed alone.
+     */
+    static World createWorld(WorldType type, int size, long seed) {
+        World world = new World(size, RandomSource.create(seed ^ size));
+        if (type == WorldType.MAZE) {
+            world.clearObstacles();
+            MazeGenerator.generateMaze(world);
+        }
+        return world;
+    }
+
+    /**
+     * One search problem: where the robot starts, where the gold is and
+     * what the heuristic has to weigh on the way.
+     */
+    private static final class Query {
+        private final int startX;
+        private final int startY;
+        private final int goalX;
+        private final int goalY;
+        private final List<Coin> coins;
+        private final List<BadGuy> badGuys;
+
+        private Query(int[] start, int[] goal, List<Coin> coins, List<BadGuy> badGuys) {
+            this.startX = start[0];
+            this.startY = start[1];
+            this.goalX = goal[0];
+            this.goalY = goal[1];
+            this.coins = coins;
+            this.badGuys = badGuys;
+        }
+    }
+
+    /**
+     * A robot walking toward one gold with SafeMovePlanner, the way
+     * GameManager.tick moves it. Each walk starts from the next query's
+     * start and faces that query's bad guys, which stand still.
+     */
+    private static final class Walk {
+        private final World world;
+        private final Query[] queries;
+        private final SafeMovePlanner planner;
+        private final Gold gold;
+        private final List<Coin> coins;
+        private final boolean[][] visited;
+        private final int[] trail;
+        private int trailLength;
+        private int query;
+        private int ticks;
+        private int x;
+        private int y;
+
+        private Walk(World world, Query[] queries) {
+            this.world = world;
+            this.queries = queries;
+            this.planner = new SafeMovePlanner(world.getSize(), SafeMovePlanner.DEFAULT_HORIZON);
+            this.gold = new Gold(queries[0].goalX, queries[0].goalY);
+            this.coins = queries[0].coins;
+            this.visited = new boolean[world.getSize()][world.getSize()];
+            this.trail = new int[WALK_TICKS + 1];
+            this.query = -1;
+            this.ticks = WALK_TICKS;
+        }
+
+        private int tick() {
+            if (ticks == WALK_TICKS) {
+                restart();
+            }
+            int next = planner.nextMove(world, x, y, visited, gold, coins, queries[query].badGuys, null, true);
+            ticks++;
+            if (next == SafeMovePlanner.NO_MOVE) {
+                ticks = WALK_TICKS;
+            } else if (next != SafeMovePlanner.WAIT) {
+                x = PatrolRoute.unpackX(next);
+                y = PatrolRoute.unpackY(next);
+                visit();
+                if (x == gold.getX() && y == gold.getY()) {
+                    ticks = WALK_TICKS;
+                }
+            }
+            return next;
+        }
+
+        private void restart() {
+            for (int i = 0; i < trailLength; i++) {
+                visited[PatrolRoute.unpackX(trail[i])][PatrolRoute.unpackY(trail[i])] = false;
+            }
+            trailLength = 0;
+            query = (query + 1) % QUERIES;
+            x = queries[query].startX;
+            y = queries[query].startY;
+            ticks = 0;
+            visit();
+        }
+
+        private void visit() {
+            visited[x][y] = true;
+            trail[trailLength++] = PatrolRoute.pack(x, y);
+        }
+    }
+
+    private static Query[] createQueries(World world, int coinCount, int badGuyCount, RandomGenerator random) {
+        Query[] queries = new Query[QUERIES];
+        for (int q = 0; q < QUERIES; q++) {
+            int[] start = world.getRandomUnvisitedCell(random);
+            int[] goal = world.getRandomUnvisitedCell(random);
+            List<Coin> coins = new ArrayList<>();
+            for (int i = 0; i < coinCount; i++) {
+                int[] cell = world.getRandomUnvisitedCell(random);
+                coins.add(new Coin(cell[0], cell[1], 10));
+            }
+            List<BadGuy> badGuys = new ArrayList<>();
+            for (int i = 0; i < badGuyCount; i++) {
+                int[] cell = world.getRandomUnvisitedCell(random);
+                badGuys.add(new ChaserBadGuy(cell[0], cell[1]));
+            }
+            queries[q] = new Query(start, goal, coins, badGuys);
+        }
+        return queries;
+    }
+}
@@ -0,0 +1,80 @@
+package goforthegold.bench;
+
+import goforthegold.model.RandomSource;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+import java.util.random.RandomGenerator;
+
+/**
+ * Measures how random number throughput scales with thread count when all
+ * threads share one generator versus when each thread owns its own.
+ *
+ * Usage: java goforthegold.bench.RandomContentionBenchmark [maxThreads] [drawsPerThread]
+ */
+public class RandomContentionBenchmark {
+    private static volatile double sink;
+
+    public static void main(String[] args) throws InterruptedException {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int draws = args.length > 1 ? Integer.parseInt(args[1]) : 5_000_000;
+
+        System.out.printf("%-28s %8s %16s%n", "Generator", "Threads", "Mops/sec");
+        for (int threads = 1; threads <= maxThreads; threads *= 2) {
+            Random shared = new Random(1);
+            run("Math.random (shared)", threads, draws, () -> null);
+            run("java.util.Random (shared)", threads, draws, () -> shared);
+            run("ThreadLocalRandom", threads, draws, ThreadLocalRandom::current);
+            run("SplittableRandom (owned)", threads, draws, SplittableRandom::new);
+            run(RandomSource.ALGORITHM + " (owned)", threads, draws, RandomSource::create);
+        }
+    }
+
+    /**
+     * Runs one measurement. A supplier returning null means Math.random().
+     */
+    private static void run(String name, int threads, int draws, Supplier<RandomGenerator> generators)
+            throws InterruptedException {
+        // Warm up so the timed run measures compiled code
+        measure(threads, draws / 10, generators);
+        double seconds = measure(threads, draws, generators);
+        double mops = (double) threads * draws / seconds / 1e6;
+        System.out.printf("%-28s %8d %16.1f%n", name, threads, mops);
+    }
+
+    private static double measure(int threads, int draws, Supplier<RandomGenerator> generators)
+            throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            workers[t] = new Thread(() -> {
+                RandomGenerator random = generators.get();
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                double sum = 0;
+                if (random == null) {
+                    for (int i = 0; i < draws; i++) {
+                        sum += Math.random();
+                    }
+                } else {
+                    for (int i = 0; i < draws; i++) {
+                        sum += random.nextDouble();
+                    }
+                }
+                sink = sum;
+            });
+            workers[t].start();
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        return (System.nanoTime() - begin) / 1e9;
+    }
+}
@@ -0,0 +1,108 @@
+package goforthegold.bench;
+
+import goforthegold.model.Difficulty;
+import goforthegold.model.Score;
+import goforthegold.model.ScoreKeeper;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Submits scores from many threads at once, with queries running
+ * alongside, and checks that every score is kept exactly once both in
+ * memory and after the score files are loaded again.
+ *
+ * Usage: java goforthegold.bench.ScoreStressTest [threads] [scoresPerThread]
+ */
+public class ScoreStressTest {
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 32;
+        int perThread = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+        Path directory = Files.createTempDirectory("score-stress");
+        Path file = directory.resolve("top_scores.txt");
+
+        ScoreKeeper keeper = new ScoreKeeper(file, ScoreKeeper.DEFAULT_SYNC_EVERY, ScoreKeeper.DEFAULT_COMPACT_EVERY);
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            String name = "player" + t;
+            Difficulty difficulty = Difficulty.values()[t % Difficulty.values().length];
+            workers[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perThread; i++) {
+                    keeper.addScore(new Score(name, i, difficulty));
+                    if (i % 1000 == 0) {
+                        keeper.getRank(i);
+                    }
+                }
+            });
+            workers[t].start();
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        double submitSeconds = (System.nanoTime() - begin) / 1e9;
+        boolean passed = check("In memory", keeper, threads, perThread);
+        keeper.close();
+        double totalSeconds = (System.nanoTime() - begin) / 1e9;
+
+        ScoreKeeper reloaded = new ScoreKeeper(file, ScoreKeeper.DEFAULT_SYNC_EVERY, ScoreKeeper.DEFAULT_COMPACT_EVERY);
+        passed &= check("Reloaded", reloaded, threads, perThread);
+        reloaded.close();
+
+        long total = (long) threads * perThread;
+        System.out.printf("%d threads submitted %d scores in %.2f s (%.0f scores/sec), saved after %.2f s%n",
+                threads, total, submitSeconds, total / submitSeconds, totalSeconds);
+        deleteAll(directory);
+        System.out.println(passed ? "PASSED: no scores lost or repeated" : "FAILED");
+        if (!passed) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Checks that each player has exactly the scores 0 to perThread - 1.
+     */
+    private static boolean check(String label, ScoreKeeper keeper, int threads, int perThread) {
+        long expected = (long) threads * perThread;
+        boolean passed = keeper.getScoreCount() == expected;
+        for (int t = 0; t < threads; t++) {
+            List<Score> scores = keeper.getPlayerScores("player" + t, perThread + 1);
+            boolean[] seen = new boolean[perThread];
+            int kept = 0;
+            for (Score score : scores) {
+                int value = score.getScore();
+                if (value >= 0 && value < perThread && !seen[value]) {
+                    seen[value] = true;
+                    kept++;
+                }
+            }
+            if (kept != perThread || scores.size() != perThread) {
+                System.out.println(label + ": player" + t + " has " + scores.size() + " scores, "
+                        + kept + " distinct, expected " + perThread);
+                passed = false;
+            }
+        }
+        System.out.println(label + ": " + keeper.getScoreCount() + " of " + expected + " scores");
+        return passed;
+    }
+
+    private static void deleteAll(Path directory) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+}
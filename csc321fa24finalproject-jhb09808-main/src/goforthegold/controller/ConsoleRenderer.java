@@ -0,0 +1,150 @@
+package goforthegold.controller;
+
+import goforthegold.model.BadGuy;
+import goforthegold.model.BadGuySwarm;
+import goforthegold.model.Coin;
+import goforthegold.model.World;
+import java.io.PrintStream;
+
+/**
+ * Draws the game board as text. Each frame is built in a reusable char
+ * buffer, one layer at a time, and written to the stream in a single call.
+ * In ANSI mode only the cells that changed since the previous frame are
+ * rewritten, using cursor moves, so a large board updates in place.
+ */
+public class ConsoleRenderer {
+    private static final char ROBOT = 'R';
+    private static final char GOLD = 'G';
+    private static final char BAD_GUY = 'B';
+    private static final char COIN = 'C';
+    private static final char OBSTACLE = '#';
+    private static final char VISITED = '.';
+    private static final char EMPTY = '·';
+    private static final String ESC = "\u001b[";
+
+    private final PrintStream out;
+    private final boolean ansi;
+    private final StringBuilder output = new StringBuilder();
+    private char[] cells = new char[0];
+    private char[] previous;
+    private int size;
+
+    /**
+     * Constructs a new ConsoleRenderer.
+     * @param out The stream to draw to
+     * @param ansi Whether to redraw in place with ANSI escape codes, writing
+     *             only the cells that changed
+     */
+    public ConsoleRenderer(PrintStream out, boolean ansi) {
+        this.out = out;
+        this.ansi = ansi;
+    }
+
+    /**
+     * Draws the board and a status line for the current state of a game.
+     * @param game The game to draw
+     */
+    public void render(GameManager game) {
+        fillCells(game);
+        output.setLength(0);
+        if (ansi && previous != null && previous.length == cells.length) {
+            appendChanges();
+        } else {
+            if (ansi) {
+                output.append(ESC).append("2J").append(ESC).append("H");
+            }
+            appendFrame();
+        }
+        if (ansi) {
+            output.append(ESC).append(size + 1).append(";1H");
+        }
+        output.append("Score: ").append(game.getScore())
+              .append(" | Moves: ").append(game.getMoveCount())
+              .append(" | Coins: ").append(game.getCoinsCollected());
+        if (ansi) {
+            output.append(ESC).append('K');
+        }
+        output.append(System.lineSeparator());
+        out.print(output);
+        out.flush();
+
+        if (ansi) {
+            char[] swap = previous != null && previous.length == cells.length ? previous : new char[cells.length];
+            previous = cells;
+            cells = swap;
+        }
+    }
+
+    /**
+     * Forgets the previous frame, so the next one is drawn in full.
+     */
+    public void reset() {
+        previous = null;
+    }
+
+    /**
+     * Fills the cell layer, lowest priority first, so each cell ends up
+     * with the symbol of the most important thing on it.
+     */
+    private void fillCells(GameManager game) {
+        World world = game.getWorld();
+        size = world.getSize();
+        if (cells.length != size * size) {
+            cells = new char[size * size];
+        }
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                cells[y * size + x] = world.isObstacle(x, y) ? OBSTACLE : game.isVisited(x, y) ? VISITED : EMPTY;
+            }
+        }
+        for (Coin coin : game.getCoins()) {
+            cells[coin.getY() * size + coin.getX()] = COIN;
+        }
+        for (BadGuy badGuy : game.getBadGuys()) {
+            cells[badGuy.getY() * size + badGuy.getX()] = BAD_GUY;
+        }
+        BadGuySwarm swarm = game.getSwarm();
+        for (int i = 0; swarm != null && i < swarm.size(); i++) {
+            cells[swarm.getY(i) * size + swarm.getX(i)] = BAD_GUY;
+        }
+        cells[game.getGold().getY() * size + game.getGold().getX()] = GOLD;
+        cells[game.getRobot().getY() * size + game.getRobot().getX()] = ROBOT;
+    }
+
+    private void appendFrame() {
+        output.ensureCapacity(size * (size * 2 + 2) + 64);
+        for (int y = 0; y < size; y++) {
+            for (int x = 0; x < size; x++) {
+                output.append(cells[y * size + x]).append(' ');
+            }
+            output.append(System.lineSeparator());
+        }
+    }
+
+    /**
+     * Appends a cursor move and the new symbol for each changed cell. The
+     * cursor move is left out when the cell follows the last one written.
+     */
+    private void appendChanges() {
+        int cursor = -1;
+        for (int cell = 0; cell < cells.length; cell++) {
+            if (cells[cell] == previous[cell]) {
+                continue;
+            }
+            if (cell != cursor) {
+                output.append(ESC).append(cell / size + 1).append(';').append(cell % size * 2 + 1).append('H');
+            }
+            output.append(cells[cell]).append(' ');
+            cursor = cell % size == size - 1 ? -1 : cell + 1;
+        }
+    }
+
+    //Getters
+    public PrintStream getOut() {
+        return out;
+    }
+
+    public boolean isAnsi() {
+        return ansi;
+    }
+}
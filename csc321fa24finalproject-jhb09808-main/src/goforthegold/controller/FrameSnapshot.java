@@ -0,0 +1,220 @@
+package goforthegold.controller;
+
+import goforthegold.model.BadGuy;
+import goforthegold.model.BadGuySwarm;
+import goforthegold.model.Coin;
+import goforthegold.model.PatrolRoute;
+import goforthegold.model.PowerUp;
+import goforthegold.model.World;
+import java.util.List;
+
+/**
+ * An immutable copy of what the view needs to draw one frame, taken on the
+ * simulation thread. Cells are packed with {@link PatrolRoute#pack}.
+ *
+ * Visited cells are not copied. The snapshot shares the game's append-only
+ * visited log and records how far it reached, so a reader only applies the
+ * entries added since its last frame. The world is shared too, but only
+ * its size and obstacles may be read, since they never change.
+ */
+public final class FrameSnapshot {
+    private final int gameId;
+    private final long sequence;
+    private final World world;
+    private final int goldX;
+    private final int goldY;
+    private final int robotX;
+    private final int robotY;
+    private final int[] badGuyCells;
+    private final int[] coinCells;
+    private final int[] powerUpCells;
+    private final int[] visitedLog;
+    private final int visitedCount;
+    private final int visitedEpoch;
+    private final double money;
+    private final int score;
+    private final int moveCount;
+    private final int totalEarnings;
+    private final boolean paused;
+    private final boolean finished;
+    private final String scoreBreakdown;
+
+    FrameSnapshot(GameManager game, int gameId, long sequence, boolean paused, boolean finished) {
+        this.gameId = gameId;
+        this.sequence = sequence;
+        this.world = game.getWorld();
+        this.goldX = game.getGold().getX();
+        this.goldY = game.getGold().getY();
+        this.robotX = game.getRobot().getX();
+        this.robotY = game.getRobot().getY();
+
+        List<BadGuy> badGuys = game.getBadGuys();
+        BadGuySwarm swarm = game.getSwarm();
+        int swarmSize = swarm == null ? 0 : swarm.size();
+        this.badGuyCells = new int[badGuys.size() + swarmSize];
+        for (int i = 0; i < badGuys.size(); i++) {
+            badGuyCells[i] = PatrolRoute.pack(badGuys.get(i).getX(), badGuys.get(i).getY());
+        }
+        for (int i = 0; i < swarmSize; i++) {
+            badGuyCells[badGuys.size() + i] = PatrolRoute.pack(swarm.getX(i), swarm.getY(i));
+        }
+        List<Coin> coins = game.getCoins();
+        this.coinCells = new int[coins.size()];
+        for (int i = 0; i < coinCells.length; i++) {
+            coinCells[i] = PatrolRoute.pack(coins.get(i).getX(), coins.get(i).getY());
+        }
+        List<PowerUp> powerUps = world.getPowerUps();
+        this.powerUpCells = new int[powerUps.size()];
+        for (int i = 0; i < powerUpCells.length; i++) {
+            powerUpCells[i] = PatrolRoute.pack(powerUps.get(i).getX(), powerUps.get(i).getY());
+        }
+
+        this.visitedLog = game.getVisitedLog();
+        this.visitedCount = game.getVisitedLogSize();
+        this.visitedEpoch = game.getVisitedEpoch();
+        this.money = game.getRobot().getMoney();
+        this.score = game.getScore();
+        this.moveCount = game.getMoveCount();
+        this.totalEarnings = game.getTotalEarnings();
+        this.paused = paused;
+        this.finished = finished;
+        this.scoreBreakdown = finished ? game.getScoreBreakdown() : null;
+    }
+
+    /**
+     * Checks whether a cell appears in a list of packed cells.
+     * @param cells The packed cells
+     * @param x The x-coordinate
+     * @param y The y-coordinate
+     * @return true if the cell is in the list
+     */
+    public static boolean contains(int[] cells, int x, int y) {
+        int cell = PatrolRoute.pack(x, y);
+        for (int c : cells) {
+            if (c == cell) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    //Getters
+    public int getGameId() {
+        return gameId;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public int getSize() {
+        return world.getSize();
+    }
+
+    public boolean isObstacle(int x, int y) {
+        return world.isObstacle(x, y);
+    }
+
+    /**
+     * Checks whether two snapshots show the same world, so cached drawings
+     * of its obstacles can be kept.
+     * @param other The other snapshot, or null
+     * @return true if both share a world
+     */
+    public boolean isSameWorld(FrameSnapshot other) {
+        return other != null && other.world == world;
+    }
+
+    public int getGoldX() {
+        return goldX;
+    }
+
+    public int getGoldY() {
+        return goldY;
+    }
+
+    public int getRobotX() {
+        return robotX;
+    }
+
+    public int getRobotY() {
+        return robotY;
+    }
+
+    /**
+     * Gets the cells of every bad guy, including the swarm.
+     * @return The packed cells; must not be modified
+     */
+    public int[] getBadGuyCells() {
+        return badGuyCells;
+    }
+
+    /**
+     * Gets the cells of the coins still on the board.
+     * @return The packed cells; must not be modified
+     */
+    public int[] getCoinCells() {
+        return coinCells;
+    }
+
+    /**
+     * Gets the cells of the power-ups still on the board.
+     * @return The packed cells; must not be modified
+     */
+    public int[] getPowerUpCells() {
+        return powerUpCells;
+    }
+
+    /**
+     * Gets the shared visited log; only entries below
+     * {@link #getVisitedCount()} belong to this snapshot.
+     * @return The packed cells; must not be modified
+     */
+    public int[] getVisitedLog() {
+        return visitedLog;
+    }
+
+    public int getVisitedCount() {
+        return visitedCount;
+    }
+
+    public int getVisitedEpoch() {
+        return visitedEpoch;
+    }
+
+    public double getMoney() {
+        return money;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    public int getCoinsLeft() {
+        return coinCells.length;
+    }
+
+    public int getTotalEarnings() {
+        return totalEarnings;
+    }
+
+    public boolean isPaused() {
+        return paused;
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * Gets the score breakdown of a finished game.
+     * @return The breakdown, or null while the game is running
+     */
+    public String getScoreBreakdown() {
+        return scoreBreakdown;
+    }
+}
@@ -0,0 +1,49 @@
+package goforthegold.controller;
+
+/**
+ * Receives the messages and board updates a game produces while it runs.
+ * The console sink keeps the classic printed output, the silent sink
+ * throws everything away so games can run headless.
+ */
+public interface GameEventSink {
+
+    /**
+     * Sink that prints messages and the game board to the console.
+     */
+    GameEventSink CONSOLE = new GameEventSink() {
+        @Override
+        public void message(String text) {
+            System.out.println(text);
+        }
+
+        @Override
+        public void moveCompleted(GameManager game) {
+            game.printGameBoard();
+        }
+    };
+
+    /**
+     * Sink that ignores all output.
+     */
+    GameEventSink SILENT = new GameEventSink() {
+        @Override
+        public void message(String text) {
+        }
+
+        @Override
+        public void moveCompleted(GameManager game) {
+        }
+    };
+
+    /**
+     * Called for every status message the game produces.
+     * @param text The message text
+     */
+    void message(String text);
+
+    /**
+     * Called after the robot has completed a move.
+     * @param game The game that was updated
+     */
+    void moveCompleted(GameManager game);
+}
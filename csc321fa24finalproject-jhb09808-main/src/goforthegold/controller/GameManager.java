@@ -7,8 +7,8 @@
  * Basic Pseudocode:
  * 1. Initialize game world with robot, gold, coins, and bad guys
  * 2. While game is not over:
- *    a. Calculate path to gold using A* algorithm
- *    b. Move robot along path
+ *    a. Plan a safe next step toward coins and gold over the next few ticks
+ *    b. Move the robot, or wait in place
  *    c. Check for coin collection
  *    d. Move bad guys
  *    e. Check for game over conditions
@@ -23,10 +23,10 @@ package goforthegold.controller;
 
 import goforthegold.model.*;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Stack;
-import java.util.Random;
+import java.util.random.RandomGenerator;
 
 /**
  * GameManager class controls the main game logic and state.
@@ -37,24 +37,42 @@ public class GameManager {
     private Robot robot;
     private Gold gold;
     private List<BadGuy> badGuys;
-    private List<int[]> robotPath;
+    private BadGuySwarm swarm;
+    private boolean doubleBufferedBadGuys;
     private List<Coin> coins;
     private List<int[]> attemptedMoves = new ArrayList<>();
     private static final int COIN_VALUE = 200;
     private Difficulty difficulty;
-    private HashTable<String, Boolean> visitedLocations;
+    private boolean[][] visitedCells;
+    private int[] visitedLog;
+    private int visitedLogSize;
+    private int visitedEpoch;
+    private SafeMovePlanner planner;
+    private int consecutiveWaits;
+    private TickResult status;
     private ScoreKeeper scoreKeeper;
     private int totalEarnings;
-    private Stack<int[]> moveHistory;
-    private Random random;
+    private UndoJournal undoJournal;
+    private RandomGenerator random;
+    private long seed;
     private int score;
     private int coinsCollected;
     private int moveCount;
     private int sessionEarnings;
     private int gridSize;
+    private GameEventSink eventSink;
+    private ConsoleRenderer consoleRenderer;
 
     
-    private static final int MAX_SAFE_MOVE_ATTEMPTS = 10;
+    private static final int MAX_CONSECUTIVE_WAITS = 3;
+    public static final int DEFAULT_UNDO_DEPTH = 100;
+    private static final int[] NEIGHBOR_DX = {-1, 1, 0, 0};
+    private static final int[] NEIGHBOR_DY = {0, 0, -1, 1};
+
+    // Change records that follow the fixed part of each undo journal entry
+    private static final int UNDO_VISITED = 0;
+    private static final int UNDO_COIN = 1;
+    private static final int UNDO_POWER_UP = 2;
 
     /**
      * Constructs a new GameManager with specified world size and difficulty.
@@ -63,13 +81,38 @@ public class GameManager {
      * @param difficulty The game difficulty level
      */
     public GameManager(int gridSize, Difficulty difficulty) {
+        this(gridSize, difficulty, RandomSource.create().nextLong());
+    }
+
+    /**
+     * Constructs a new GameManager from a seed. The same seed, size and
+     * difficulty always produce the same game.
+     * 
+     * @param gridSize The size of the game world (nxn grid)
+     * @param difficulty The game difficulty level
+     * @param seed The seed for the game's random generator
+     */
+    public GameManager(int gridSize, Difficulty difficulty, long seed) {
+        this(gridSize, difficulty, RandomSource.create(seed));
+        this.seed = seed;
+    }
+
+    /**
+     * Constructs a new GameManager whose world and bad guys all draw from the
+     * given generator. Two games built from generators with the
+     * same seed play out identically.
+     * 
+     * @param gridSize The size of the game world (nxn grid)
+     * @param difficulty The game difficulty level
+     * @param random The random generator owned by this game
+     */
+    public GameManager(int gridSize, Difficulty difficulty, RandomGenerator random) {
         this.gridSize = gridSize;
         this.difficulty = difficulty;
-        this.scoreKeeper = new ScoreKeeper();
-        this.visitedLocations = new HashTable<>();
+        this.eventSink = GameEventSink.CONSOLE;
         this.totalEarnings = 0;
-        this.moveHistory = new Stack<>();
-        this.random = new Random();
+        this.undoJournal = new UndoJournal(DEFAULT_UNDO_DEPTH);
+        this.random = random;
         this.score = 0;
         this.coinsCollected = 0;
         this.moveCount = 0;
@@ -84,7 +127,7 @@ public class GameManager {
      * @param worldSize The size of the world to initialize
      */
     private void initializeGame() {
-        world = new World(gridSize);
+        world = new World(gridSize, random);
         robot = new Robot(getDifficultyBasedMoney());
         int[] goldPosition = world.getRandomUnvisitedCell();
         gold = new Gold(goldPosition[0], goldPosition[1]);
@@ -104,17 +147,26 @@ public class GameManager {
                     badGuy = new ChaserBadGuy(position[0], position[1]);
                     break;
                 case 1:
-                    badGuy = new PatrollerBadGuy(position[0], position[1], generatePatrolPoints());
+                    int[][] patrolPoints = generatePatrolPoints();
+                    badGuy = new PatrollerBadGuy(position[0], position[1], patrolPoints, world.getPatrolRoute(patrolPoints));
                     break;
                 default:
                     badGuy = new TeleporterBadGuy(position[0], position[1]);
             }
             badGuys.add(badGuy);
         }
+        swarm = null;
 
-        visitedLocations.put(robot.getX() + "," + robot.getY(), true);
-        moveHistory.clear();
-        robotPath = null; 
+        visitedCells = new boolean[gridSize][gridSize];
+        visitedCells[robot.getX()][robot.getY()] = true;
+        visitedLog = new int[16];
+        visitedLogSize = 0;
+        visitedEpoch++;
+        logVisited(robot.getX(), robot.getY());
+        planner = new SafeMovePlanner(gridSize, SafeMovePlanner.DEFAULT_HORIZON);
+        consecutiveWaits = 0;
+        undoJournal.clear();
+        status = null;
     }
 
     private int[][] generatePatrolPoints() {
@@ -126,90 +178,177 @@ public class GameManager {
         return points; 
     }
 
+    /**
+     * Adds a swarm of extra bad guys on top of the difficulty-based ones.
+     * The swarm is stored as primitive arrays so thousands of enemies can
+     * be updated every tick. It is removed again when the game is reset.
+     * 
+     * @param count The number of bad guys to add
+     */
+    public void spawnSwarm(int count) {
+        // Journal entries cover a fixed set of bad guys
+        undoJournal.clear();
+        status = null;
+        if (swarm == null) {
+            swarm = new BadGuySwarm(count);
+        }
+        for (int i = 0; i < count; i++) {
+            int[] position = world.getRandomUnvisitedCell();
+            switch (random.nextInt(3)) {
+                case 0:
+                    swarm.addChaser(position[0], position[1]);
+                    break;
+                case 1:
+                    int[][] patrolPoints = generatePatrolPoints();
+                    swarm.addPatroller(position[0], position[1], patrolPoints, world.getPatrolRoute(patrolPoints));
+                    break;
+                default:
+                    swarm.addTeleporter(position[0], position[1]);
+            }
+        }
+    }
+
     /**
      * Attempts to move the robot based on the current game state.
-     * Uses A* pathfinding to determine the next move.
+     * Plans over the next few ticks to pick a step that stays clear of the
+     * bad guys; the robot may also wait in place for a tick.
      * 
-     * @return true if a move was successfully made, false otherwise
+     * @return true if the robot moved or waited, false if it had no safe move
      */
     public boolean makeMove() {
-        int attempts = 0; 
-
-        while (attempts < MAX_SAFE_MOVE_ATTEMPTS) {
-            if (robotPath == null || robotPath.isEmpty()) {
-                robotPath = AStarPathfinder.findPath(world, robot.getX(), robot.getY(), gold.getX(), gold.getY(), coins, badGuys, visitedLocations);
-                if (robotPath == null) {
-                    System.out.println("No path to gold found!");
-                    return false; 
-                }
-                robotPath.remove(0); 
-            }
+        TickResult result = tick();
+        return result.isMoved() || result.isWaited();
+    }
 
-            if (!robotPath.isEmpty() && robot.canAffordMove()) {
-                int[] nextMove = robotPath.remove(0); 
-                
-                if (world.isValidMove(nextMove[0], nextMove[1]) && isSafeToMove(nextMove[0], nextMove[1])) {
-                    moveRobot(nextMove[0], nextMove[1]); 
-                    markVisited(nextMove[0], nextMove[1]); 
-                    
-                    collectCoin(); 
-                    checkForPowerUp(); 
-                    moveBadGuys(); 
-                    checkNearMisses(); 
-                    
-                    moveCount++; 
-                    
-                    if (coins.isEmpty() || (robot.getX() == gold.getX() && robot.getY() == gold.getY())) {
-                        robotPath = null; 
-                    }
-                    
-                    printGameBoard(); 
-                    return true; 
-                } else {
-                    System.out.println("Robot encountered an obstacle or unsafe move at (" + nextMove[0] + ", " + nextMove[1] + ")");
-                    robotPath = null; 
-                    attempts++; 
-                }
-            } else {
-                return false; 
-            }
+    /**
+     * Runs one tick: moves the robot, then resolves pick-ups, the bad guys'
+     * moves, near misses and the end-of-game checks in a single pass.
+     * The move comes from one space-time search over the coming ticks, so
+     * there is no retrying of unsafe steps.
+     * 
+     * @return What happened this tick; neither moved nor waited if the robot
+     *         had no safe move
+     */
+    public TickResult tick() {
+        if (!robot.canAffordMove()) {
+            return stayed();
         }
-        
-        System.out.println("Robot unable to find a safe move after " + MAX_SAFE_MOVE_ATTEMPTS + " attempts."); 
-        return false; 
+        int next = planner.nextMove(world, robot.getX(), robot.getY(), visitedCells, gold, coins, badGuys, swarm,
+                consecutiveWaits < MAX_CONSECUTIVE_WAITS);
+        if (next == SafeMovePlanner.NO_MOVE) {
+            eventSink.message("Robot unable to find a safe move from (" + robot.getX() + ", " + robot.getY() + ")");
+            return stayed();
+        }
+
+        recordUndo();
+        if (next == SafeMovePlanner.WAIT) {
+            consecutiveWaits++;
+            status = resolveTick(TickResult.WAITED);
+        } else {
+            consecutiveWaits = 0;
+            moveRobot(PatrolRoute.unpackX(next), PatrolRoute.unpackY(next));
+            status = resolveTick(TickResult.MOVED);
+            moveCount++;
+        }
+        eventSink.moveCompleted(this);
+        return status;
     }
 
     /**
-     * Checks if a move to the specified position is safe from bad guys.
+     * Everything that follows the robot's move, fused into one pass: pick-ups
+     * on the robot's cell, then each bad guy moves and is checked against the
+     * robot right away, then the robot's neighborhood is checked.
      * 
-     * @param x The x-coordinate to check
-     * @param y The y-coordinate to check
-     * @return true if the move is safe, false otherwise
+     * @param flags {@link TickResult#MOVED} or {@link TickResult#WAITED}
+     * @return The result of the tick
      */
-    private boolean isSafeToMove(int x, int y) {
+    private TickResult resolveTick(int flags) {
+        int robotX = robot.getX();
+        int robotY = robot.getY();
+        if ((flags & TickResult.MOVED) != 0) {
+            if (collectCoin()) {
+                flags |= TickResult.COIN_COLLECTED;
+            }
+            if (checkForPowerUp()) {
+                flags |= TickResult.POWER_UP_COLLECTED;
+            }
+        }
+
+        world.getRobotFlowField().update(world, robotX, robotY);
+        boolean caught = false;
+        int nearMisses = 0;
         for (BadGuy badGuy : badGuys) {
-            int distance = Math.abs(badGuy.getX() - x) + Math.abs(badGuy.getY() - y);
-            if (distance <= 1) {
-                return false; 
+            badGuy.move(world, robot, difficulty, random);
+            int distance = Math.abs(badGuy.getX() - robotX) + Math.abs(badGuy.getY() - robotY);
+            if (distance == 0) {
+                caught = true;
+            } else if (distance == 1) {
+                nearMisses++;
+                eventSink.message("Close call! Bad guy nearly caught the robot at (" + badGuy.getX() + ", " + badGuy.getY() + ")");
             }
-            
-            if (distance <= 3) {
-                if (Math.random() < 0.7) { 
-                    return false;
-                }
+        }
+        if (swarm != null) {
+            if (doubleBufferedBadGuys) {
+                swarm.updateBuffered(world, robot, difficulty, random.nextLong());
+            } else {
+                swarm.update(world, robot, difficulty, random);
+            }
+            int[] around = swarm.countAround(robotX, robotY);
+            caught |= around[0] > 0;
+            if (around[1] > 0) {
+                nearMisses += around[1];
+                eventSink.message("Close call! " + around[1] + " swarm bad guys nearly caught the robot");
             }
         }
-        return true;
+        return new TickResult(flags | checkGameOver(caught), nearMisses);
     }
-    
+
     /**
-     * Marks a cell as visited in the game world.
+     * Works out the end-of-game flags for the current position.
      * 
-     * @param x The x-coordinate of the cell
-     * @param y The y-coordinate of the cell
+     * @param caught Whether a bad guy is on the robot's cell
+     * @return The game-over flags of a {@link TickResult}
      */
-    private void markVisited(int x, int y) {
-        visitedLocations.put(x + "," + y, true);
+    private int checkGameOver(boolean caught) {
+        int flags = 0;
+        if (isGameWon()) {
+            flags |= TickResult.GOLD_REACHED;
+        }
+        if (caught) {
+            flags |= TickResult.CAUGHT;
+        }
+        if (!robot.canAffordMove()) {
+            flags |= TickResult.OUT_OF_MONEY;
+        }
+        if (isRobotSurrounded()) {
+            flags |= TickResult.SURROUNDED;
+        }
+        return flags;
+    }
+
+    /**
+     * Builds the result of a tick in which the robot could not move. Nothing
+     * changed, so the end-of-game flags are those of the current status.
+     * 
+     * @return A result that is neither moved nor waited
+     */
+    private TickResult stayed() {
+        int flags = getStatus().getFlags()
+                & ~(TickResult.MOVED | TickResult.WAITED | TickResult.COIN_COLLECTED | TickResult.POWER_UP_COLLECTED);
+        return new TickResult(flags, 0);
+    }
+
+    /**
+     * Gets the result of the last tick, or the current state if something
+     * other than a tick (a reset, an undo, a new swarm) changed the game since.
+     * 
+     * @return The current status
+     */
+    public TickResult getStatus() {
+        if (status == null) {
+            status = new TickResult(checkGameOver(isRobotCaught()), 0);
+        }
+        return status;
     }
 
     /**
@@ -220,19 +359,29 @@ public class GameManager {
      * @return true if the cell has been visited, false otherwise
      */
     public boolean isVisited(int x, int y) {
-        return visitedLocations.get(x + "," + y) != null;
+        return x >= 0 && x < gridSize && y >= 0 && y < gridSize && visitedCells[x][y];
     }
 
     /**
      * Checks for and applies any power-up at the robot's current position.
+     * 
+     * @return true if a power-up was collected
      */
-    private void checkForPowerUp() {
+    private boolean checkForPowerUp() {
         PowerUp powerUp = world.getPowerUpAt(robot.getX(), robot.getY());
         if (powerUp != null) {
+            undoJournal.push(UNDO_POWER_UP);
+            undoJournal.push(world.getPowerUps().indexOf(powerUp));
+            undoJournal.push(powerUp.getX());
+            undoJournal.push(powerUp.getY());
+            undoJournal.push(powerUp.getType().ordinal());
             robot.applyPowerUp(powerUp);
+            eventSink.message("Robot activated " + powerUp.getType() + " power-up!");
             world.removePowerUp(powerUp);
-            System.out.println("Robot collected a " + powerUp.getType() + " power-up!");
+            eventSink.message("Robot collected a " + powerUp.getType() + " power-up!");
+            return true;
         }
+        return false;
     }
 
     /**
@@ -242,46 +391,133 @@ public class GameManager {
      * @param newY The new y-coordinate for the robot
      */
     private void moveRobot(int newX, int newY) {
-        moveHistory.push(new int[]{robot.getX(), robot.getY()});
+        int unvisited = (world.isVisited(newX, newY) ? 0 : 1) | (isVisited(newX, newY) ? 0 : 2);
+        if (unvisited != 0) {
+            undoJournal.push(UNDO_VISITED);
+            undoJournal.push(newX);
+            undoJournal.push(newY);
+            undoJournal.push(unvisited);
+        }
+        PowerUpType activePowerUp = robot.getActivePowerUp();
         robot.move(newX, newY);
+        if (activePowerUp != null && robot.getActivePowerUp() == null) {
+            eventSink.message(activePowerUp + " power-up has worn off.");
+        }
         world.markVisited(newX, newY);
-        visitedLocations.put(newX + "," + newY, true);
+        if (!visitedCells[newX][newY]) {
+            visitedCells[newX][newY] = true;
+            logVisited(newX, newY);
+        }
     }
 
     /**
-     * Undoes the last move made by the robot.
-     * 
-     * @return true if a move was successfully undone, false if no moves to undo
+     * Appends a newly visited cell to the visited log. A full log is copied
+     * into a bigger array, so arrays already handed out never change below
+     * the size they were handed out with.
      */
-    public boolean undoMove() {
-        if (!moveHistory.isEmpty()) {
-            int[] lastMove = moveHistory.pop();
-            robot.move(lastMove[0], lastMove[1]);
-            robot.addMoney(100); 
-            moveCount--;
-            return true;
+    private void logVisited(int x, int y) {
+        if (visitedLogSize == visitedLog.length) {
+            visitedLog = Arrays.copyOf(visitedLog, visitedLogSize * 2);
         }
-        return false;
+        visitedLog[visitedLogSize++] = PatrolRoute.pack(x, y);
     }
 
     /**
-     * Checks for and reports any near misses with bad guys.
+     * Starts an undo journal entry with everything a move can change in
+     * place: the robot, the counters and every bad guy. Coins, power-ups and
+     * visited cells are added as they change.
      */
-    private void checkNearMisses() {
+    private void recordUndo() {
+        undoJournal.beginMove();
+        undoJournal.push(robot.getX());
+        undoJournal.push(robot.getY());
+        undoJournal.push(Double.doubleToRawLongBits(robot.getMoney()));
+        PowerUpType activePowerUp = robot.getActivePowerUp();
+        undoJournal.push(activePowerUp == null ? -1 : activePowerUp.ordinal());
+        undoJournal.push(robot.getPowerUpDuration());
+        undoJournal.push(moveCount);
+        undoJournal.push(score);
+        undoJournal.push(coinsCollected);
+
         for (BadGuy badGuy : badGuys) {
-            if (Math.abs(badGuy.getX() - robot.getX()) + Math.abs(badGuy.getY() - robot.getY()) == 1) {
-                System.out.println("Close call! Bad guy nearly caught the robot at (" + badGuy.getX() + ", " + badGuy.getY() + ")");
-            }
+            undoJournal.push(badGuy.getX());
+            undoJournal.push(badGuy.getY());
+            undoJournal.push(badGuy.saveState());
+        }
+        for (int i = 0; swarm != null && i < swarm.size(); i++) {
+            undoJournal.push(swarm.getX(i));
+            undoJournal.push(swarm.getY(i));
+            undoJournal.push(swarm.getCooldown(i));
+            undoJournal.push(swarm.getPatrolIndex(i));
         }
     }
 
     /**
-     * Moves all bad guys in the game world.
+     * Undoes the last move, putting the robot, money, counters, coins,
+     * power-ups, bad guys and visited cells back exactly as they were.
+     * Only the last {@link #getUndoDepth()} moves can be undone.
+     * 
+     * @return true if a move was successfully undone, false if no moves to undo
      */
-    private void moveBadGuys() {
+    public boolean undoMove() {
+        if (!undoJournal.popMove()) {
+            return false;
+        }
+        int x = undoJournal.next();
+        int y = undoJournal.next();
+        double money = Double.longBitsToDouble(undoJournal.nextLong());
+        int powerUpOrdinal = undoJournal.next();
+        int powerUpDuration = undoJournal.next();
+        robot.restore(x, y, money, powerUpOrdinal < 0 ? null : PowerUpType.values()[powerUpOrdinal], powerUpDuration);
+        moveCount = undoJournal.next();
+        score = undoJournal.next();
+        coinsCollected = undoJournal.next();
+
         for (BadGuy badGuy : badGuys) {
-            badGuy.move(world, robot, difficulty);
+            badGuy.restore(undoJournal.next(), undoJournal.next(), undoJournal.next());
+        }
+        for (int i = 0; swarm != null && i < swarm.size(); i++) {
+            swarm.restore(i, undoJournal.next(), undoJournal.next(), undoJournal.next(), undoJournal.next());
+        }
+
+        int unvisitedCount = 0;
+        while (undoJournal.hasNext()) {
+            switch (undoJournal.next()) {
+                case UNDO_VISITED: {
+                    int cellX = undoJournal.next();
+                    int cellY = undoJournal.next();
+                    int unvisited = undoJournal.next();
+                    if ((unvisited & 1) != 0) {
+                        world.unmarkVisited(cellX, cellY);
+                    }
+                    if ((unvisited & 2) != 0) {
+                        visitedCells[cellX][cellY] = false;
+                        unvisitedCount++;
+                    }
+                    break;
+                }
+                case UNDO_COIN: {
+                    int index = undoJournal.next();
+                    coins.add(index, new Coin(undoJournal.next(), undoJournal.next(), undoJournal.next()));
+                    break;
+                }
+                default: {
+                    int index = undoJournal.next();
+                    world.restorePowerUp(index, new PowerUp(undoJournal.next(), undoJournal.next(),
+                            PowerUpType.values()[undoJournal.next()]));
+                }
+            }
         }
+        if (unvisitedCount > 0) {
+            // Cells leave the log from the end; start a new epoch on a copy so
+            // the old array is never written to again
+            visitedLog = Arrays.copyOf(visitedLog, visitedLog.length);
+            visitedLogSize -= unvisitedCount;
+            visitedEpoch++;
+        }
+        consecutiveWaits = 0;
+        status = null;
+        return true;
     }
 
     /**
@@ -295,19 +531,17 @@ public class GameManager {
                 return true;
             }
         }
-        return false;
+        return swarm != null && swarm.isOccupied(robot.getX(), robot.getY());
     }
 
     /**
-     * Checks if the game is over based on various conditions.
+     * Checks if the game is over based on various conditions. Answered from
+     * the last tick's result, so calling it between ticks costs nothing.
      * 
      * @return true if the game is over, false otherwise
      */
     public boolean isGameOver() {
-        return (robot.getX() == gold.getX() && robot.getY() == gold.getY()) 
-            || !robot.canAffordMove() 
-            || isRobotCaught()
-            || isRobotSurrounded();
+        return getStatus().isGameOver();
     }
 
     /**
@@ -316,11 +550,10 @@ public class GameManager {
      * @return true if the robot is surrounded, false otherwise
      */
     private boolean isRobotSurrounded() {
-        int[][] directions = {{-1, 0}, {1, 0}, {0, -1}, {0, 1}}; 
-        for (int[] dir : directions) {
-            int newX = robot.getX() + dir[0];
-            int newY = robot.getY() + dir[1];
-            if (world.isValidMove(newX, newY) && visitedLocations.get(newX + "," + newY) == null) {
+        for (int d = 0; d < 4; d++) {
+            int newX = robot.getX() + NEIGHBOR_DX[d];
+            int newY = robot.getY() + NEIGHBOR_DY[d];
+            if (world.isValidMove(newX, newY) && !visitedCells[newX][newY]) {
                 return false;
             }
         }
@@ -329,20 +562,30 @@ public class GameManager {
     
     /**
      * Collects a coin if the robot is on the same position as the coin.
+     * 
+     * @return true if a coin was collected
      */
-    private void collectCoin() {
+    private boolean collectCoin() {
         Iterator<Coin> iterator = coins.iterator();
+        int index = 0;
         while (iterator.hasNext()) {
             Coin coin = iterator.next();
             if (coin.getX() == robot.getX() && coin.getY() == robot.getY()) {
+                undoJournal.push(UNDO_COIN);
+                undoJournal.push(index);
+                undoJournal.push(coin.getX());
+                undoJournal.push(coin.getY());
+                undoJournal.push(coin.getValue());
                 robot.addMoney(coin.getValue());
                 iterator.remove();
                 coinsCollected++;
                 score += 100; 
-                System.out.println("Collected coin at: (" + coin.getX() + ", " + coin.getY() + "). Score: " + score);
-                break;
+                eventSink.message("Collected coin at: (" + coin.getX() + ", " + coin.getY() + "). Score: " + score);
+                return true;
             }
+            index++;
         }
+        return false;
     }
 
     /**
@@ -351,6 +594,16 @@ public class GameManager {
      * @return The initial money amount
      */
     private int getDifficultyBasedMoney() {
+        return getDifficultyBasedMoney(difficulty);
+    }
+
+    /**
+     * Gets the initial money amount for a difficulty.
+     * 
+     * @param difficulty The game difficulty
+     * @return The initial money amount
+     */
+    static int getDifficultyBasedMoney(Difficulty difficulty) {
         switch (difficulty) {
             case EASY: return 1500;
             case MEDIUM: return 1000;
@@ -379,6 +632,16 @@ public class GameManager {
      * @return The number of coins
      */
     public int getDifficultyBasedCoins() {
+        return getDifficultyBasedCoins(difficulty);
+    }
+
+    /**
+     * Gets the number of coins for a difficulty.
+     * 
+     * @param difficulty The game difficulty
+     * @return The number of coins
+     */
+    static int getDifficultyBasedCoins(Difficulty difficulty) {
         switch (difficulty) {
             case EASY: return 7;
             case MEDIUM: return 5;
@@ -392,7 +655,7 @@ public class GameManager {
      * 
      * @return The calculated score
      */
-    private int calculateScore() {
+    public int calculateScore() {
         int baseScore = (int) robot.getMoney();
         int coinBonus = coinsCollected * 50;
         int difficultyMultiplier = switch (difficulty) {
@@ -430,7 +693,7 @@ public class GameManager {
         score = calculateScore();
 
         
-        scoreKeeper.addScore(new Score(playerName, score));
+        getScoreKeeper().addScore(new Score(playerName, score, difficulty));
 
         
         int earnings = (int) (robot.getMoney() - getDifficultyBasedMoney());
@@ -438,12 +701,12 @@ public class GameManager {
         totalEarnings += earnings;
 
         
-        System.out.println(getScoreBreakdown());
+        eventSink.message(getScoreBreakdown());
 
         
-        System.out.println("\nTop Scores:");
+        eventSink.message("\nTop Scores:");
         for (Score topScore : scoreKeeper.getTopScores()) {
-            System.out.println(topScore);
+            eventSink.message(topScore.toString());
         }
     }
 
@@ -456,6 +719,29 @@ public class GameManager {
         return robot.getX() == gold.getX() && robot.getY() == gold.getY();
     }
 
+    /**
+     * Plays the game without any input until it ends.
+     * 
+     * @return How the game ended
+     */
+    public GameOutcome playToEnd() {
+        while (!isGameOver()) {
+            if (!makeMove()) {
+                break;
+            }
+        }
+        return getOutcome();
+    }
+
+    /**
+     * Works out how the game ended, or would end if it stopped now.
+     * 
+     * @return The outcome of the game
+     */
+    public GameOutcome getOutcome() {
+        return getStatus().getOutcome();
+    }
+
     /**
      * Resets the game to its initial state.
      */
@@ -468,46 +754,10 @@ public class GameManager {
      * Uses different characters to represent game elements.
      */
     public void printGameBoard() {
-        for (int y = 0; y < world.getSize(); y++) {
-            for (int x = 0; x < world.getSize(); x++) {
-                if (robot.getX() == x && robot.getY() == y) {
-                    System.out.print("R");
-                } else if (gold.getX() == x && gold.getY() == y) {
-                    System.out.print("G");
-                } else if (isBadGuyAt(x, y)) {
-                    System.out.print("B");
-                } else if (isCoinAt(x, y)) {
-                    System.out.print("C");
-                } else if (world.isObstacle(x, y)) {
-                    System.out.print("#");
-                } else if (isVisited(x, y)) {
-                    System.out.print(".");
-                } else {
-                    System.out.print("·"); 
-                }
-                System.out.print(" "); 
-            }
-            System.out.println();
-        }
-        System.out.println("Score: " + score + " | Moves: " + moveCount + " | Coins: " + coinsCollected);
-    }
-
-    private boolean isBadGuyAt(int x, int y) {
-        for (BadGuy badGuy : badGuys) {
-            if (badGuy.getX() == x && badGuy.getY() == y) {
-                return true;
-            }
-        }
-        return false;
-    }
-
-    private boolean isCoinAt(int x, int y) {
-        for (Coin coin : coins) {
-            if (coin.getX() == x && coin.getY() == y) {
-                return true;
-            }
+        if (consoleRenderer == null || consoleRenderer.getOut() != System.out) {
+            consoleRenderer = new ConsoleRenderer(System.out, false);
         }
-        return false;
+        consoleRenderer.render(this);
     }
     
     public void addAttemptedMove(int x, int y) {
@@ -529,6 +779,37 @@ public class GameManager {
         return score;
     }
 
+    public int getCoinsCollected() {
+        return coinsCollected;
+    }
+
+    /**
+     * Gets the cells the robot has visited, packed with
+     * {@link PatrolRoute#pack}, in the order it first reached them. Entries
+     * below {@link #getVisitedLogSize()} never change for as long as
+     * {@link #getVisitedEpoch()} stays the same, so the array can be read
+     * from another thread once it has been safely handed over.
+     * 
+     * @return The visited log array
+     */
+    public int[] getVisitedLog() {
+        return visitedLog;
+    }
+
+    public int getVisitedLogSize() {
+        return visitedLogSize;
+    }
+
+    /**
+     * Gets the visited log's epoch, which changes whenever cells leave the
+     * log (an undo or a new world) and readers must start over.
+     * 
+     * @return The epoch
+     */
+    public int getVisitedEpoch() {
+        return visitedEpoch;
+    }
+
     public World getWorld() { 
     	return world; 
     }
@@ -544,6 +825,29 @@ public class GameManager {
     public List<BadGuy> getBadGuys() { 
     	return badGuys; 
     }
+
+    /**
+     * Gets the swarm of extra bad guys.
+     * 
+     * @return The swarm, or null if none was spawned
+     */
+    public BadGuySwarm getSwarm() {
+        return swarm;
+    }
+
+    public boolean isDoubleBufferedBadGuys() {
+        return doubleBufferedBadGuys;
+    }
+
+    /**
+     * Switches the swarm to double-buffered updates, which run in parallel
+     * chunks for large swarms and never move two enemies into one cell.
+     * 
+     * @param doubleBufferedBadGuys true to use double-buffered updates
+     */
+    public void setDoubleBufferedBadGuys(boolean doubleBufferedBadGuys) {
+        this.doubleBufferedBadGuys = doubleBufferedBadGuys;
+    }
     
     public List<Coin> getCoins() { 
     	return coins; 
@@ -562,6 +866,50 @@ public class GameManager {
     }
     
     public ScoreKeeper getScoreKeeper() { 
+        if (scoreKeeper == null) {
+            scoreKeeper = ScoreKeeper.getShared();
+        }
     	return scoreKeeper; 
     }
+
+    /**
+     * Gets how many moves can be undone.
+     * 
+     * @return The most moves that can be undone
+     */
+    public int getUndoDepth() {
+        return undoJournal.getDepth();
+    }
+
+    /**
+     * Sets how many moves can be undone. Clears the current undo history.
+     * 
+     * @param depth The most moves that can be undone
+     */
+    public void setUndoDepth(int depth) {
+        undoJournal = new UndoJournal(depth);
+    }
+
+    /**
+     * Gets the seed the game was created from.
+     * 
+     * @return The seed, or 0 if the game was given a generator directly
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    public GameEventSink getEventSink() {
+        return eventSink;
+    }
+
+    /**
+     * Sets where game messages and board updates are sent.
+     * Use {@link GameEventSink#SILENT} to run the game headless.
+     * 
+     * @param eventSink The sink to use
+     */
+    public void setEventSink(GameEventSink eventSink) {
+        this.eventSink = eventSink;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,8 @@
+package goforthegold.controller;
+
+/**
+ * Enum representing the ways a game can end.
+ */
+public enum GameOutcome {
+    WON, CAUGHT, OUT_OF_MONEY, STUCK
+}
@@ -0,0 +1,380 @@
+package goforthegold.controller;
+
+import goforthegold.model.Coin;
+import goforthegold.model.Difficulty;
+import goforthegold.model.FlowField;
+import goforthegold.model.Gold;
+import goforthegold.model.HashTable;
+import goforthegold.model.PatrolRoute;
+import goforthegold.model.RandomSource;
+import goforthegold.model.ReservationTable;
+import goforthegold.model.Robot;
+import goforthegold.model.SpaceTimePlanner;
+import goforthegold.model.World;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.random.RandomGenerator;
+import java.util.stream.IntStream;
+
+/**
+ * Many robots in one world, racing for the coins and the gold without ever
+ * sharing a cell.
+ *
+ * Every tick each robot plans a window of moves with {@link SpaceTimePlanner}
+ * against the reservations left by the previous tick. Those searches are
+ * independent, so they run on a worker pool. The plans are then committed one
+ * robot at a time in priority order; a plan that clashes with one committed
+ * earlier in the same tick is searched again against the updated table. The
+ * priority order rotates every tick so no robot is always last.
+ *
+ * Until a robot commits, its current cell stays reserved for the next tick,
+ * so a robot can always fall back to waiting. Moving costs money as in the
+ * single robot game, waiting is free, and coins pay out to whoever steps on
+ * them first.
+ */
+public class MultiRobotGame implements AutoCloseable {
+    public static final int DEFAULT_WINDOW = 8;
+    private static final int COIN_VALUE = 200;
+
+    private final World world;
+    private final Gold gold;
+    private final List<Coin> coins;
+    private final Robot[] robots;
+    private final int[] coinsCollected;
+    private final ReservationTable reservations;
+    private final SpaceTimePlanner[] planners;
+    private final int[][] plans;
+    private final int[][] proposals;
+    private final HashTable<Integer, FlowField> goalFields;
+    private final ForkJoinPool pool;
+    private final int[] occupied;
+    private int occupiedStamp;
+    private int tick;
+    private int winner;
+    private int collisions;
+
+    /**
+     * Constructs a new MultiRobotGame. Starting money scales with the grid
+     * (the single robot amount on a 10x10 grid) and there are as many coins
+     * per robot as a single robot game has.
+     * 
+     * @param gridSize The size of the world
+     * @param robotCount The number of robots
+     * @param difficulty The difficulty that sets money and coins
+     * @param seed The seed for the world and starting positions
+     * @param threads The number of planner threads; 1 plans on the calling thread
+     */
+    public MultiRobotGame(int gridSize, int robotCount, Difficulty difficulty, long seed, int threads) {
+        RandomGenerator random = RandomSource.create(seed);
+        this.world = new World(gridSize, random);
+        int cells = gridSize * gridSize;
+        if (robotCount < 1 || robotCount > cells / 4) {
+            throw new IllegalArgumentException("Robot count must be between 1 and " + cells / 4);
+        }
+
+        boolean[] taken = new boolean[cells];
+        int[] goldPosition = world.getRandomUnvisitedCell();
+        gold = new Gold(goldPosition[0], goldPosition[1]);
+        taken[goldPosition[0] * gridSize + goldPosition[1]] = true;
+
+        double money = GameManager.getDifficultyBasedMoney(difficulty) * gridSize / 10.0;
+        robots = new Robot[robotCount];
+        for (int i = 0; i < robotCount; i++) {
+            int[] position = freeCell(taken, gridSize);
+            robots[i] = new Robot(position[0], position[1], money);
+        }
+        int coinCount = Math.min(GameManager.getDifficultyBasedCoins(difficulty) * robotCount, cells / 4);
+        coins = new ArrayList<>();
+        for (int i = 0; i < coinCount; i++) {
+            int[] position = freeCell(taken, gridSize);
+            coins.add(new Coin(position[0], position[1], COIN_VALUE));
+        }
+
+        coinsCollected = new int[robotCount];
+        reservations = new ReservationTable(gridSize, DEFAULT_WINDOW);
+        planners = new SpaceTimePlanner[robotCount];
+        plans = new int[robotCount][];
+        proposals = new int[robotCount][];
+        for (int i = 0; i < robotCount; i++) {
+            planners[i] = new SpaceTimePlanner(gridSize, DEFAULT_WINDOW);
+            plans[i] = new int[0];
+            reservations.reserve(robots[i].getX(), robots[i].getY(), 0, i);
+        }
+        goalFields = new HashTable<>();
+        pool = threads > 1 ? new ForkJoinPool(threads) : null;
+        occupied = new int[cells];
+        winner = -1;
+    }
+
+    private int[] freeCell(boolean[] taken, int gridSize) {
+        int[] position;
+        do {
+            position = world.getRandomUnvisitedCell();
+        } while (taken[position[0] * gridSize + position[1]]);
+        taken[position[0] * gridSize + position[1]] = true;
+        return position;
+    }
+
+    /**
+     * Plans, commits and moves every robot once.
+     * 
+     * @return false if the game was already over
+     */
+    public boolean tick() {
+        if (isGameOver()) {
+            return false;
+        }
+        int count = robots.length;
+        FlowField[] goals = new FlowField[count];
+        for (int i = 0; i < count; i++) {
+            goals[i] = canMove(i) ? goalField(robots[i]) : null;
+        }
+
+        // Plan everyone against last tick's reservations, in parallel
+        if (pool == null) {
+            for (int i = 0; i < count; i++) {
+                proposals[i] = propose(i, goals[i]);
+            }
+        } else {
+            try {
+                pool.submit(() -> IntStream.range(0, count).parallel()
+                        .forEach(i -> proposals[i] = propose(i, goals[i]))).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Planning interrupted", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Planning failed", e.getCause());
+            }
+        }
+
+        // Replace last tick's reservations with holds on the current cells
+        for (int i = 0; i < count; i++) {
+            for (int step = 0; step < plans[i].length; step++) {
+                reservations.release(PatrolRoute.unpackX(plans[i][step]), PatrolRoute.unpackY(plans[i][step]), tick + step, i);
+            }
+            reservations.reserve(robots[i].getX(), robots[i].getY(), tick, i);
+            reservations.reserve(robots[i].getX(), robots[i].getY(), tick + 1, i);
+        }
+
+        // Commit in priority order, re-planning any plan that now clashes
+        for (int k = 0; k < count; k++) {
+            int i = (tick + k) % count;
+            int[] plan = proposals[i];
+            if (goals[i] == null) {
+                // A robot that cannot move blocks its cell for the whole window
+                plan = stay(i, DEFAULT_WINDOW);
+            } else if (plan == null || !isStillValid(i, plan)) {
+                plan = planners[i].plan(world, reservations, i, robots[i].getX(), robots[i].getY(), tick, goals[i]);
+                if (plan == null) {
+                    plan = stay(i, 1);
+                }
+            }
+            plans[i] = plan;
+            for (int step = 0; step < plan.length; step++) {
+                reservations.reserve(PatrolRoute.unpackX(plan[step]), PatrolRoute.unpackY(plan[step]), tick + 1 + step, i);
+            }
+        }
+
+        // Everyone takes the first step of their plan at once
+        tick++;
+        for (int i = 0; i < count; i++) {
+            int x = PatrolRoute.unpackX(plans[i][0]);
+            int y = PatrolRoute.unpackY(plans[i][0]);
+            if (x != robots[i].getX() || y != robots[i].getY()) {
+                robots[i].move(x, y);
+            }
+        }
+        checkCollisions();
+        for (int k = 0; k < count; k++) {
+            int i = (tick - 1 + k) % count;
+            collectCoin(i);
+            if (winner < 0 && robots[i].getX() == gold.getX() && robots[i].getY() == gold.getY()) {
+                winner = i;
+            }
+        }
+        return true;
+    }
+
+    private int[] propose(int i, FlowField goal) {
+        if (goal == null) {
+            return null;
+        }
+        return planners[i].plan(world, reservations, i, robots[i].getX(), robots[i].getY(), tick, goal);
+    }
+
+    /**
+     * Checks a plan made before this tick's commits against the table as it
+     * stands now. The robot's own hold on its cell does not count.
+     */
+    private boolean isStillValid(int id, int[] plan) {
+        int x = robots[id].getX();
+        int y = robots[id].getY();
+        for (int step = 0; step < plan.length; step++) {
+            int nx = PatrolRoute.unpackX(plan[step]);
+            int ny = PatrolRoute.unpackY(plan[step]);
+            if (!reservations.canStep(x, y, nx, ny, tick + step, id)) {
+                return false;
+            }
+            x = nx;
+            y = ny;
+        }
+        return true;
+    }
+
+    /**
+     * Builds a plan that waits in place. The robot's hold on its cell for the
+     * next tick guarantees the first wait is always free.
+     */
+    private int[] stay(int i, int ticks) {
+        int[] plan = new int[ticks];
+        Arrays.fill(plan, PatrolRoute.pack(robots[i].getX(), robots[i].getY()));
+        return plan;
+    }
+
+    private boolean canMove(int i) {
+        return winner < 0 && robots[i].canAffordMove();
+    }
+
+    /**
+     * Gets the distance field toward the robot's goal: the nearest coin, or
+     * the gold once the coins are gone. Fields are built once per goal cell
+     * and a coin's field is dropped when the coin is collected, so at most
+     * one field per remaining coin is kept.
+     */
+    private FlowField goalField(Robot robot) {
+        int goalX = gold.getX();
+        int goalY = gold.getY();
+        int best = Integer.MAX_VALUE;
+        for (Coin coin : coins) {
+            int distance = Math.abs(coin.getX() - robot.getX()) + Math.abs(coin.getY() - robot.getY());
+            if (distance < best) {
+                best = distance;
+                goalX = coin.getX();
+                goalY = coin.getY();
+            }
+        }
+        Integer key = PatrolRoute.pack(goalX, goalY);
+        FlowField field = goalFields.get(key);
+        if (field == null) {
+            field = new FlowField(world.getSize());
+            field.update(world, goalX, goalY);
+            goalFields.put(key, field);
+        }
+        return field;
+    }
+
+    private void collectCoin(int i) {
+        for (int c = 0; c < coins.size(); c++) {
+            Coin coin = coins.get(c);
+            if (coin.getX() == robots[i].getX() && coin.getY() == robots[i].getY()) {
+                robots[i].addMoney(coin.getValue());
+                coinsCollected[i]++;
+                coins.remove(c);
+                goalFields.remove(PatrolRoute.pack(coin.getX(), coin.getY()));
+                return;
+            }
+        }
+    }
+
+    /**
+     * Counts robots sharing a cell after a move. Reservations rule this out,
+     * so the count should stay at zero.
+     */
+    private void checkCollisions() {
+        occupiedStamp++;
+        int size = world.getSize();
+        for (Robot robot : robots) {
+            int cell = robot.getX() * size + robot.getY();
+            if (occupied[cell] == occupiedStamp) {
+                collisions++;
+            }
+            occupied[cell] = occupiedStamp;
+        }
+    }
+
+    /**
+     * Plays until a robot reaches the gold, no robot can move, or the tick limit.
+     * 
+     * @param maxTicks The most ticks to play
+     * @return The number of ticks played
+     */
+    public int playToEnd(int maxTicks) {
+        int played = 0;
+        while (played < maxTicks && tick()) {
+            played++;
+        }
+        return played;
+    }
+
+    /**
+     * Checks if the game is over: a robot has the gold or nobody can afford to move.
+     * 
+     * @return true if the game is over
+     */
+    public boolean isGameOver() {
+        if (winner >= 0) {
+            return true;
+        }
+        for (Robot robot : robots) {
+            if (robot.canAffordMove()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Shuts down the planner threads.
+     */
+    @Override
+    public void close() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    //Getters
+    public World getWorld() {
+        return world;
+    }
+
+    public Gold getGold() {
+        return gold;
+    }
+
+    public List<Coin> getCoins() {
+        return coins;
+    }
+
+    public int getRobotCount() {
+        return robots.length;
+    }
+
+    public Robot getRobot(int index) {
+        return robots[index];
+    }
+
+    public int getCoinsCollected(int index) {
+        return coinsCollected[index];
+    }
+
+    public int getTick() {
+        return tick;
+    }
+
+    /**
+     * Gets the robot that reached the gold.
+     * 
+     * @return The robot's index, or -1 if nobody has
+     */
+    public int getWinner() {
+        return winner;
+    }
+
+    public int getCollisions() {
+        return collisions;
+    }
+}
@@ -0,0 +1,181 @@
+package goforthegold.controller;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Runs a game on its own thread so slow ticks never hold up the user
+ * interface.
+ *
+ * The game and its {@link SimulationScheduler} belong to the simulation
+ * thread. Other threads talk to it in two lock-free ways: commands go in
+ * through a concurrent queue and run between ticks, and every render
+ * publishes a new {@link FrameSnapshot} into a single slot. A reader always
+ * gets the latest finished frame; frames it was too slow to see are simply
+ * replaced.
+ */
+public class SimulationRunner implements AutoCloseable {
+    private static final long RUNNING_PARK_NANOS = 1_000_000L;
+
+    private final AtomicReference<FrameSnapshot> latest = new AtomicReference<>();
+    private final ConcurrentLinkedQueue<Runnable> commands = new ConcurrentLinkedQueue<>();
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    // Owned by the simulation thread
+    private final SimulationScheduler scheduler;
+    private GameManager game;
+    private int gameId;
+    private long sequence;
+
+    /**
+     * Constructs a new SimulationRunner and starts its thread. It idles
+     * until a game is started.
+     */
+    public SimulationRunner() {
+        scheduler = new SimulationScheduler(this::tickGame, this::publish);
+        thread = new Thread(this::run, "simulation");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void run() {
+        while (running) {
+            Runnable command;
+            boolean changed = false;
+            while ((command = commands.poll()) != null) {
+                command.run();
+                changed = true;
+            }
+            if (game != null) {
+                scheduler.advance(System.nanoTime());
+                if (changed) {
+                    publish();
+                }
+            }
+            if (game == null || scheduler.isPaused() || scheduler.isFinished()) {
+                LockSupport.park(this);
+            } else {
+                LockSupport.parkNanos(this, RUNNING_PARK_NANOS);
+            }
+        }
+    }
+
+    private boolean tickGame() {
+        return !game.isGameOver() && game.makeMove();
+    }
+
+    private void publish() {
+        latest.set(new FrameSnapshot(game, gameId, ++sequence, scheduler.isPaused(), scheduler.isFinished()));
+    }
+
+    /**
+     * Queues a command to run on the simulation thread between ticks.
+     * @param command The command
+     */
+    public void submit(Runnable command) {
+        commands.add(command);
+        LockSupport.unpark(thread);
+    }
+
+    /**
+     * Queues a command that needs the current game. It is skipped if no
+     * game has been started.
+     * @param command The command
+     */
+    public void execute(Consumer<GameManager> command) {
+        submit(() -> {
+            if (game != null) {
+                command.accept(game);
+            }
+        });
+    }
+
+    /**
+     * Hands a game to the simulation thread and starts running it. The
+     * caller must not touch the game afterwards except through
+     * {@link #execute(Consumer)}.
+     * @param game The game to run
+     */
+    public void start(GameManager game) {
+        submit(() -> {
+            this.game = game;
+            gameId++;
+            scheduler.reset();
+        });
+    }
+
+    /**
+     * Resets the current game to its initial state and runs it again.
+     */
+    public void resetGame() {
+        execute(game -> {
+            game.resetGame();
+            gameId++;
+            scheduler.reset();
+        });
+    }
+
+    /**
+     * Undoes the last move of the current game.
+     */
+    public void undoMove() {
+        execute(GameManager::undoMove);
+    }
+
+    public void pause() {
+        submit(scheduler::pause);
+    }
+
+    public void resume() {
+        submit(scheduler::resume);
+    }
+
+    /**
+     * Runs a single tick while paused.
+     */
+    public void step() {
+        submit(scheduler::step);
+    }
+
+    /**
+     * Sets the fast-forward factor; 1 is normal speed.
+     * @param speed The speed multiplier
+     */
+    public void setSpeed(double speed) {
+        submit(() -> scheduler.setSpeed(speed));
+    }
+
+    /**
+     * Sets how many ticks run per second of real time at normal speed.
+     * @param tickRate The tick rate in ticks per second
+     */
+    public void setTickRate(double tickRate) {
+        submit(() -> scheduler.setTickRate(tickRate));
+    }
+
+    /**
+     * Stops the simulation thread and waits for it to finish.
+     */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    //Getters
+    /**
+     * Gets the latest published frame.
+     * @return The latest frame, or null before the first game starts
+     */
+    public FrameSnapshot getLatest() {
+        return latest.get();
+    }
+}
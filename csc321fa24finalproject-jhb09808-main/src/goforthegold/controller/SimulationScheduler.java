@@ -0,0 +1,211 @@
+package goforthegold.controller;
+
+import java.util.function.BooleanSupplier;
+
+/**
+ * Fixed-timestep scheduler that decouples how often the game simulates from
+ * how often it is drawn.
+ *
+ * The owner calls {@link #advance(long)} once per frame. The scheduler runs
+ * as many ticks as the elapsed time calls for at the current tick rate and
+ * speed, but never more than a frame's budget; if ticks fall behind the
+ * backlog is dropped instead of snowballing into later frames. Rendering is
+ * throttled separately to the render rate.
+ */
+public class SimulationScheduler {
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+    private final BooleanSupplier tick;
+    private final Runnable render;
+    private double tickRate;
+    private double speed;
+    private double renderRate;
+    private int maxTicksPerFrame;
+    private long frameBudgetNanos;
+
+    private boolean paused;
+    private boolean finished;
+    private boolean renderPending;
+    private double accumulator;
+    private long lastTime;
+    private long lastRender;
+    private long tickCount;
+    private long droppedTicks;
+
+    /**
+     * Constructs a new SimulationScheduler running at 10 ticks per second,
+     * the speed of the original Swing timer.
+     *
+     * @param tick Runs one simulation tick, returning false once the simulation has ended
+     * @param render Draws the current state
+     */
+    public SimulationScheduler(BooleanSupplier tick, Runnable render) {
+        this.tick = tick;
+        this.render = render;
+        this.tickRate = 10;
+        this.speed = 1;
+        this.renderRate = 60;
+        this.maxTicksPerFrame = 10_000;
+        this.frameBudgetNanos = 12_000_000L;
+        reset();
+    }
+
+    /**
+     * Advances the simulation to the given time.
+     *
+     * @param now The current time from System.nanoTime()
+     */
+    public void advance(long now) {
+        long elapsed = lastTime == 0 ? 0 : now - lastTime;
+        lastTime = now;
+
+        if (!finished && !paused) {
+            double interval = getTickIntervalNanos();
+            accumulator += elapsed * speed;
+
+            long frameStart = System.nanoTime();
+            int ticks = 0;
+            while (accumulator >= interval && ticks < maxTicksPerFrame) {
+                if (!runTick()) {
+                    break;
+                }
+                accumulator -= interval;
+                ticks++;
+                if (System.nanoTime() - frameStart > frameBudgetNanos) {
+                    break;
+                }
+            }
+
+            if (accumulator >= interval) {
+                droppedTicks += (long) (accumulator / interval);
+                accumulator = 0;
+            }
+        }
+
+        if (renderPending && (finished || now - lastRender >= NANOS_PER_SECOND / renderRate)) {
+            lastRender = now;
+            renderPending = false;
+            render.run();
+        }
+    }
+
+    /**
+     * Runs a single tick while paused and draws the result.
+     */
+    public void step() {
+        if (paused && !finished) {
+            runTick();
+            renderPending = false;
+            render.run();
+        }
+    }
+
+    private boolean runTick() {
+        renderPending = true;
+        if (!tick.getAsBoolean()) {
+            finished = true;
+            return false;
+        }
+        tickCount++;
+        return true;
+    }
+
+    /**
+     * Clears all timing state, for example after starting a new game.
+     */
+    public void reset() {
+        finished = false;
+        renderPending = true;
+        accumulator = 0;
+        lastTime = 0;
+        lastRender = 0;
+        tickCount = 0;
+        droppedTicks = 0;
+    }
+
+    public void pause() {
+        paused = true;
+    }
+
+    public void resume() {
+        paused = false;
+        accumulator = 0;
+    }
+
+    //Getters and setters
+    public boolean isPaused() {
+        return paused;
+    }
+
+    public boolean isFinished() {
+        return finished;
+    }
+
+    public long getTickCount() {
+        return tickCount;
+    }
+
+    public long getDroppedTicks() {
+        return droppedTicks;
+    }
+
+    public double getTickRate() {
+        return tickRate;
+    }
+
+    public double getTickIntervalNanos() {
+        return NANOS_PER_SECOND / tickRate;
+    }
+
+    /**
+     * Sets how many ticks run per second of real time at normal speed.
+     * @param tickRate The tick rate in ticks per second
+     */
+    public void setTickRate(double tickRate) {
+        this.tickRate = Math.max(0.1, tickRate);
+    }
+
+    public double getSpeed() {
+        return speed;
+    }
+
+    /**
+     * Sets the fast-forward factor; 1 is normal speed.
+     * @param speed The speed multiplier
+     */
+    public void setSpeed(double speed) {
+        this.speed = Math.max(0, speed);
+    }
+
+    public double getRenderRate() {
+        return renderRate;
+    }
+
+    /**
+     * Sets the maximum number of renders per second.
+     * @param renderRate The render rate in frames per second
+     */
+    public void setRenderRate(double renderRate) {
+        this.renderRate = Math.max(1, renderRate);
+    }
+
+    public int getMaxTicksPerFrame() {
+        return maxTicksPerFrame;
+    }
+
+    public void setMaxTicksPerFrame(int maxTicksPerFrame) {
+        this.maxTicksPerFrame = Math.max(1, maxTicksPerFrame);
+    }
+
+    public long getFrameBudgetNanos() {
+        return frameBudgetNanos;
+    }
+
+    /**
+     * Sets how long a single frame may spend running ticks before the rest are dropped.
+     * @param frameBudgetNanos The budget in nanoseconds
+     */
+    public void setFrameBudgetNanos(long frameBudgetNanos) {
+        this.frameBudgetNanos = Math.max(0, frameBudgetNanos);
+    }
+}
@@ -0,0 +1,82 @@
+package goforthegold.controller;
+
+/**
+ * Collects outcome statistics over a batch of simulated games.
+ */
+public class SimulationStats {
+    private final int[] outcomeCounts = new int[GameOutcome.values().length];
+    private int games;
+    private long totalMoves;
+    private long totalScore;
+
+    /**
+     * Records the result of one finished game.
+     * @param outcome How the game ended
+     * @param moves The number of moves the robot made
+     * @param score The final score of the game
+     */
+    public void record(GameOutcome outcome, int moves, int score) {
+        outcomeCounts[outcome.ordinal()]++;
+        games++;
+        totalMoves += moves;
+        totalScore += score;
+    }
+
+    /**
+     * Records the result of a finished game.
+     * @param game The game to record
+     */
+    public void record(GameManager game) {
+        record(game.getOutcome(), game.getMoveCount(), game.calculateScore());
+    }
+
+    /**
+     * Adds all results of another stats object to this one.
+     * @param other The stats to merge in
+     */
+    public void merge(SimulationStats other) {
+        for (int i = 0; i < outcomeCounts.length; i++) {
+            outcomeCounts[i] += other.outcomeCounts[i];
+        }
+        games += other.games;
+        totalMoves += other.totalMoves;
+        totalScore += other.totalScore;
+    }
+
+    //Getters
+    public int getGames() {
+        return games;
+    }
+
+    public int getCount(GameOutcome outcome) {
+        return outcomeCounts[outcome.ordinal()];
+    }
+
+    public double getRate(GameOutcome outcome) {
+        return games == 0 ? 0 : (double) getCount(outcome) / games;
+    }
+
+    public double getWinRate() {
+        return getRate(GameOutcome.WON);
+    }
+
+    public double getAverageMoves() {
+        return games == 0 ? 0 : (double) totalMoves / games;
+    }
+
+    public double getAverageScore() {
+        return games == 0 ? 0 : (double) totalScore / games;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Games: ").append(games).append("\n");
+        for (GameOutcome outcome : GameOutcome.values()) {
+            sb.append(String.format("  %-12s %8d (%5.1f%%)%n", outcome, getCount(outcome), getRate(outcome) * 100));
+        }
+        sb.append(String.format("Average moves: %.2f%n", getAverageMoves()));
+        sb.append(String.format("Average score: %.1f", getAverageScore()));
+        return sb.toString();
+    }
+}
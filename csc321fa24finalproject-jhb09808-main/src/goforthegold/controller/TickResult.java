@@ -0,0 +1,86 @@
+package goforthegold.controller;
+
+/**
+ * What happened during one tick of the game: the robot's pick-ups, how
+ * close the bad guys came and whether the game is over. Everything is
+ * gathered in one pass after the move and packed into a flags word.
+ */
+public final class TickResult {
+    static final int MOVED = 1;
+    static final int COIN_COLLECTED = 1 << 1;
+    static final int POWER_UP_COLLECTED = 1 << 2;
+    static final int GOLD_REACHED = 1 << 3;
+    static final int CAUGHT = 1 << 4;
+    static final int OUT_OF_MONEY = 1 << 5;
+    static final int SURROUNDED = 1 << 6;
+    static final int WAITED = 1 << 7;
+    private static final int GAME_OVER = GOLD_REACHED | CAUGHT | OUT_OF_MONEY | SURROUNDED;
+
+    private final int flags;
+    private final int nearMisses;
+
+    TickResult(int flags, int nearMisses) {
+        this.flags = flags;
+        this.nearMisses = nearMisses;
+    }
+
+    /**
+     * Works out how the game ended, or would end if it stopped now.
+     * @return The outcome of the game
+     */
+    public GameOutcome getOutcome() {
+        if ((flags & GOLD_REACHED) != 0) {
+            return GameOutcome.WON;
+        } else if ((flags & CAUGHT) != 0) {
+            return GameOutcome.CAUGHT;
+        } else if ((flags & OUT_OF_MONEY) != 0) {
+            return GameOutcome.OUT_OF_MONEY;
+        }
+        return GameOutcome.STUCK;
+    }
+
+    //Getters
+    public boolean isMoved() {
+        return (flags & MOVED) != 0;
+    }
+
+    public boolean isWaited() {
+        return (flags & WAITED) != 0;
+    }
+
+    public boolean isCoinCollected() {
+        return (flags & COIN_COLLECTED) != 0;
+    }
+
+    public boolean isPowerUpCollected() {
+        return (flags & POWER_UP_COLLECTED) != 0;
+    }
+
+    public boolean isGoldReached() {
+        return (flags & GOLD_REACHED) != 0;
+    }
+
+    public boolean isCaught() {
+        return (flags & CAUGHT) != 0;
+    }
+
+    public boolean isOutOfMoney() {
+        return (flags & OUT_OF_MONEY) != 0;
+    }
+
+    public boolean isSurrounded() {
+        return (flags & SURROUNDED) != 0;
+    }
+
+    public boolean isGameOver() {
+        return (flags & GAME_OVER) != 0;
+    }
+
+    public int getNearMisses() {
+        return nearMisses;
+    }
+
+    public int getFlags() {
+        return flags;
+    }
+}
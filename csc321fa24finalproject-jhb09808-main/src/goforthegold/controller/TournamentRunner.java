@@ -0,0 +1,99 @@
+package goforthegold.controller;
+
+import goforthegold.model.Difficulty;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Runs large numbers of headless games in parallel and aggregates the
+ * results per difficulty.
+ *
+ * Every game gets its own SplittableRandom seeded from a master stream,
+ * and the seeds are drawn before any game starts. Which thread plays a game
+ * therefore has no effect on how it plays out, so a master seed gives the
+ * same results at any thread count.
+ */
+public class TournamentRunner {
+    private final int gridSize;
+    private final int gamesPerDifficulty;
+    private final int threads;
+
+    /**
+     * Constructs a new TournamentRunner.
+     *
+     * @param gridSize The size of the world for every game
+     * @param gamesPerDifficulty How many games to play at each difficulty
+     * @param threads How many worker threads to use
+     */
+    public TournamentRunner(int gridSize, int gamesPerDifficulty, int threads) {
+        this.gridSize = gridSize;
+        this.gamesPerDifficulty = gamesPerDifficulty;
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Plays the whole tournament.
+     *
+     * @param masterSeed The seed every game seed is derived from
+     * @return The statistics for each difficulty
+     */
+    public Map<Difficulty, SimulationStats> run(long masterSeed) {
+        Difficulty[] difficulties = Difficulty.values();
+        int totalGames = difficulties.length * gamesPerDifficulty;
+
+        long[] seeds = new long[totalGames];
+        SplittableRandom master = new SplittableRandom(masterSeed);
+        for (int i = 0; i < totalGames; i++) {
+            seeds[i] = master.nextLong();
+        }
+
+        byte[] outcomes = new byte[totalGames];
+        int[] moves = new int[totalGames];
+        int[] scores = new int[totalGames];
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            pool.submit(() -> IntStream.range(0, totalGames).parallel().forEach(i -> {
+                Difficulty difficulty = difficulties[i / gamesPerDifficulty];
+                GameManager game = new GameManager(gridSize, difficulty, new SplittableRandom(seeds[i]));
+                game.setEventSink(GameEventSink.SILENT);
+                outcomes[i] = (byte) game.playToEnd().ordinal();
+                moves[i] = game.getMoveCount();
+                scores[i] = game.calculateScore();
+            })).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Tournament interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Tournament game failed", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+
+        GameOutcome[] outcomeValues = GameOutcome.values();
+        Map<Difficulty, SimulationStats> results = new EnumMap<>(Difficulty.class);
+        for (int i = 0; i < totalGames; i++) {
+            Difficulty difficulty = difficulties[i / gamesPerDifficulty];
+            results.computeIfAbsent(difficulty, d -> new SimulationStats())
+                   .record(outcomeValues[outcomes[i]], moves[i], scores[i]);
+        }
+        return results;
+    }
+
+    //Getters
+    public int getGridSize() {
+        return gridSize;
+    }
+
+    public int getGamesPerDifficulty() {
+        return gamesPerDifficulty;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+}
@@ -1,5 +1,7 @@
 package goforthegold.model;
 
+import java.util.random.RandomGenerator;
+
 /**
  * Abstract class representing a bad guy in the game.
  */
@@ -25,8 +27,9 @@ public abstract class BadGuy {
      * @param world The game world
      * @param robot The robot
      * @param difficulty The game difficulty
+     * @param random The random generator owned by the game
      */
-    public abstract void move(World world, Robot robot, Difficulty difficulty);
+    public abstract void move(World world, Robot robot, Difficulty difficulty, RandomGenerator random);
 
     //Getters
     public int getX() {
@@ -41,6 +44,33 @@ public abstract class BadGuy {
         return type;
     }
 
+    /**
+     * Packs any state besides the position into one int, for undo.
+     * @return The packed state
+     */
+    public int saveState() {
+        return 0;
+    }
+
+    /**
+     * Puts the bad guy back at an earlier position and state, for undo.
+     * @param x The x-coordinate
+     * @param y The y-coordinate
+     * @param state A value returned by {@link #saveState()}
+     */
+    public void restore(int x, int y, int state) {
+        this.x = x;
+        this.y = y;
+        restoreState(state);
+    }
+
+    /**
+     * Unpacks the state returned by {@link #saveState()}.
+     * @param state The packed state
+     */
+    protected void restoreState(int state) {
+    }
+
     /**
      * Calculates the Manhattan distance to the robot.
      * @param robot The robot
@@ -50,6 +80,30 @@ public abstract class BadGuy {
         return Math.abs(this.x - robot.getX()) + Math.abs(this.y - robot.getY());
     }
 
+    /**
+     * Takes one step toward the robot. Follows the world's flow field when it
+     * points at the robot, so the step goes around walls; otherwise steps
+     * straight at the robot.
+     * @param world The game world
+     * @param robot The robot
+     */
+    protected void stepTowardsRobot(World world, Robot robot) {
+        FlowField flowField = world.getRobotFlowField();
+        int dx;
+        int dy;
+        if (flowField.isTargeting(robot.getX(), robot.getY()) && flowField.isReachable(x, y)) {
+            dx = flowField.getStepDx(x, y);
+            dy = flowField.getStepDy(x, y);
+        } else {
+            dx = Integer.compare(robot.getX(), x);
+            dy = Integer.compare(robot.getY(), y);
+        }
+        if (world.isValidMove(x + dx, y + dy)) {
+            x += dx;
+            y += dy;
+        }
+    }
+
     /**
      * Gets the intelligence factor based on difficulty.
      * @param difficulty The game difficulty
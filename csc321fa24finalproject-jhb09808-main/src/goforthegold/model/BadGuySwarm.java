@@ -0,0 +1,579 @@
+package goforthegold.model;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+import java.util.stream.IntStream;
+
+/**
+ * Stores large numbers of bad guys as parallel primitive arrays instead of
+ * one object per enemy.
+ *
+ * Entities are kept grouped by type: chasers first, then patrollers, then
+ * teleporters. {@link #update} runs one tight loop per group, so each loop
+ * is monomorphic and touches only the arrays its behavior needs. The moves
+ * follow {@link ChaserBadGuy}, {@link PatrollerBadGuy} and
+ * {@link TeleporterBadGuy}, including steering along the world's flow field
+ * and walking a shortest path back to a patrol route after a chase. Those
+ * paths are found on the calling thread before anyone moves, since they
+ * share the world's scratch route field.
+ */
+public class BadGuySwarm {
+    public static final int PATROL_POINTS = 4;
+    private static final int TELEPORT_COOLDOWN = 5;
+    private static final int TELEPORT_ATTEMPTS = 10;
+    private static final int CHASE_RANGE = 3;
+    private static final int CHUNK_SIZE = 1024;
+    private static final int PARALLEL_THRESHOLD = 4096;
+
+    private int count;
+    private int[] x;
+    private int[] y;
+    private byte[] type;
+    private int[] cooldown;
+    private int[] patrolIndex;
+    private int[] patrolPoints;
+    private PatrolRoute[] routes;
+    private int[][] returnPaths;
+    private int[] returnStep;
+    private int[] returnFrom;
+    private int chaserEnd;
+    private int patrollerEnd;
+
+    private int[] nextX;
+    private int[] nextY;
+    private int[] nextCooldown;
+    private int[] nextPatrolIndex;
+    private int[] claims;
+    private int claimStamp;
+    private int lastConflicts;
+
+    /**
+     * Constructs an empty swarm.
+     * @param capacity The initial number of entities to make room for
+     */
+    public BadGuySwarm(int capacity) {
+        capacity = Math.max(4, capacity);
+        x = new int[capacity];
+        y = new int[capacity];
+        type = new byte[capacity];
+        cooldown = new int[capacity];
+        patrolIndex = new int[capacity];
+        patrolPoints = new int[capacity * PATROL_POINTS * 2];
+        routes = new PatrolRoute[capacity];
+        returnPaths = new int[capacity][];
+        returnStep = new int[capacity];
+        returnFrom = new int[capacity];
+    }
+
+    /**
+     * Adds a chaser at the given position.
+     */
+    public void addChaser(int x, int y) {
+        add(BadGuyType.CHASER, x, y, null, null);
+    }
+
+    /**
+     * Adds a patroller that walks between the given points.
+     * @param points Exactly {@link #PATROL_POINTS} points as {x, y} pairs
+     */
+    public void addPatroller(int x, int y, int[][] points) {
+        addPatroller(x, y, points, null);
+    }
+
+    /**
+     * Adds a patroller that follows a precomputed route.
+     * @param points Exactly {@link #PATROL_POINTS} points as {x, y} pairs
+     * @param route The shared route through the points, or null to step greedily between them
+     */
+    public void addPatroller(int x, int y, int[][] points, PatrolRoute route) {
+        if (points.length != PATROL_POINTS) {
+            throw new IllegalArgumentException("Patrollers need " + PATROL_POINTS + " patrol points");
+        }
+        add(BadGuyType.PATROLLER, x, y, points, route);
+    }
+
+    /**
+     * Adds a teleporter at the given position.
+     */
+    public void addTeleporter(int x, int y) {
+        add(BadGuyType.TELEPORTER, x, y, null, null);
+    }
+
+    private void add(BadGuyType badGuyType, int newX, int newY, int[][] points, PatrolRoute route) {
+        if (count == x.length) {
+            grow();
+        }
+        // Open a slot at the end of the entity's bucket by moving the first
+        // entity of each later bucket to the end of that bucket.
+        int slot = count;
+        if (badGuyType != BadGuyType.TELEPORTER) {
+            if (patrollerEnd < count) {
+                copy(patrollerEnd, slot);
+                slot = patrollerEnd;
+            }
+            patrollerEnd++;
+            if (badGuyType == BadGuyType.CHASER) {
+                if (chaserEnd < patrollerEnd - 1) {
+                    copy(chaserEnd, slot);
+                    slot = chaserEnd;
+                }
+                chaserEnd++;
+            }
+        }
+        count++;
+
+        x[slot] = newX;
+        y[slot] = newY;
+        type[slot] = (byte) badGuyType.ordinal();
+        cooldown[slot] = 0;
+        patrolIndex[slot] = 0;
+        routes[slot] = route;
+        returnPaths[slot] = null;
+        if (points != null) {
+            int base = slot * PATROL_POINTS * 2;
+            for (int p = 0; p < PATROL_POINTS; p++) {
+                patrolPoints[base + p * 2] = points[p][0];
+                patrolPoints[base + p * 2 + 1] = points[p][1];
+            }
+        }
+    }
+
+    private void copy(int from, int to) {
+        x[to] = x[from];
+        y[to] = y[from];
+        type[to] = type[from];
+        cooldown[to] = cooldown[from];
+        patrolIndex[to] = patrolIndex[from];
+        routes[to] = routes[from];
+        returnPaths[to] = returnPaths[from];
+        returnStep[to] = returnStep[from];
+        returnFrom[to] = returnFrom[from];
+        System.arraycopy(patrolPoints, from * PATROL_POINTS * 2, patrolPoints, to * PATROL_POINTS * 2, PATROL_POINTS * 2);
+    }
+
+    private void grow() {
+        int capacity = x.length * 2;
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        type = Arrays.copyOf(type, capacity);
+        cooldown = Arrays.copyOf(cooldown, capacity);
+        patrolIndex = Arrays.copyOf(patrolIndex, capacity);
+        patrolPoints = Arrays.copyOf(patrolPoints, capacity * PATROL_POINTS * 2);
+        routes = Arrays.copyOf(routes, capacity);
+        returnPaths = Arrays.copyOf(returnPaths, capacity);
+        returnStep = Arrays.copyOf(returnStep, capacity);
+        returnFrom = Arrays.copyOf(returnFrom, capacity);
+    }
+
+    /**
+     * Moves every entity once, in place.
+     * @param world The game world
+     * @param robot The robot
+     * @param difficulty The game difficulty
+     * @param random The random generator owned by the game
+     */
+    public void update(World world, Robot robot, Difficulty difficulty, RandomGenerator random) {
+        planReturns(world);
+        step(0, count, world, robot.getX(), robot.getY(), intelligence(difficulty), random, false);
+    }
+
+    /**
+     * Moves every entity once using double buffering.
+     *
+     * Every entity reads the previous tick's state and writes its next state
+     * into a separate buffer, so entities can be updated in parallel chunks.
+     * Randomness comes from one stream per fixed-size chunk, split from the
+     * tick seed, so the result does not depend on how many threads ran.
+     * When two entities move into the same cell, the lower index wins and
+     * the others keep their previous state.
+     *
+     * @param world The game world
+     * @param robot The robot
+     * @param difficulty The game difficulty
+     * @param tickSeed The seed for this tick's random streams
+     */
+    public void updateBuffered(World world, Robot robot, Difficulty difficulty, long tickSeed) {
+        if (nextX == null || nextX.length != x.length) {
+            nextX = new int[x.length];
+            nextY = new int[x.length];
+            nextCooldown = new int[x.length];
+            nextPatrolIndex = new int[x.length];
+        }
+        double intelligence = intelligence(difficulty);
+        int robotX = robot.getX();
+        int robotY = robot.getY();
+        planReturns(world);
+
+        int chunks = (count + CHUNK_SIZE - 1) / CHUNK_SIZE;
+        SplittableRandom[] chunkRandoms = new SplittableRandom[chunks];
+        SplittableRandom master = new SplittableRandom(tickSeed);
+        for (int c = 0; c < chunks; c++) {
+            chunkRandoms[c] = master.split();
+        }
+        IntStream range = IntStream.range(0, chunks);
+        if (count >= PARALLEL_THRESHOLD) {
+            range = range.parallel();
+        }
+        range.forEach(c -> step(c * CHUNK_SIZE, Math.min(count, (c + 1) * CHUNK_SIZE),
+                world, robotX, robotY, intelligence, chunkRandoms[c], true));
+
+        resolveConflicts(world.getSize());
+
+        int[] swap = x;
+        x = nextX;
+        nextX = swap;
+        swap = y;
+        y = nextY;
+        nextY = swap;
+        swap = cooldown;
+        cooldown = nextCooldown;
+        nextCooldown = swap;
+        swap = patrolIndex;
+        patrolIndex = nextPatrolIndex;
+        nextPatrolIndex = swap;
+    }
+
+    /**
+     * Finds the way back for every patroller that is off its route and has
+     * no path from where it stands, such as one a chase just pulled away.
+     * Only patrollers near the robot leave their routes, so this is cheap.
+     */
+    private void planReturns(World world) {
+        for (int i = chaserEnd; i < patrollerEnd; i++) {
+            if (routes[i] == null) {
+                continue;
+            }
+            int target = routes[i].get(patrolIndex[i]);
+            if (x[i] == PatrolRoute.unpackX(target) && y[i] == PatrolRoute.unpackY(target)) {
+                returnPaths[i] = null;
+            } else if (returnPaths[i] == null || PatrolRoute.pack(x[i], y[i]) != returnFrom[i]) {
+                returnPaths[i] = PatrolRoute.findPath(world, x[i], y[i],
+                        PatrolRoute.unpackX(target), PatrolRoute.unpackY(target));
+                returnStep[i] = 0;
+            }
+        }
+    }
+
+    /**
+     * Lets the lowest index win every contested cell; the other entities
+     * keep their previous state. Entities that stand still claim their cell
+     * first. An entity that loses may end up sharing its old cell with a
+     * mover, just as enemies can share cells in the in-place update.
+     */
+    private void resolveConflicts(int worldSize) {
+        int cells = worldSize * worldSize;
+        if (claims == null || claims.length < cells) {
+            claims = new int[cells];
+            claimStamp = 0;
+        }
+        claimStamp++;
+        if (claimStamp == 0) {
+            Arrays.fill(claims, 0);
+            claimStamp = 1;
+        }
+
+        for (int i = 0; i < count; i++) {
+            if (nextX[i] == x[i] && nextY[i] == y[i]) {
+                claims[nextX[i] * worldSize + nextY[i]] = claimStamp;
+            }
+        }
+        int conflicts = 0;
+        for (int i = 0; i < count; i++) {
+            if (nextX[i] == x[i] && nextY[i] == y[i]) {
+                continue;
+            }
+            int cell = nextX[i] * worldSize + nextY[i];
+            if (claims[cell] == claimStamp) {
+                nextX[i] = x[i];
+                nextY[i] = y[i];
+                nextCooldown[i] = cooldown[i];
+                nextPatrolIndex[i] = patrolIndex[i];
+                conflicts++;
+            } else {
+                claims[cell] = claimStamp;
+            }
+        }
+        lastConflicts = conflicts;
+    }
+
+    /**
+     * Moves entities in [from, to). Reads the current buffers and writes to
+     * either the current buffers or the next ones.
+     */
+    private void step(int from, int to, World world, int robotX, int robotY, double intelligence,
+                      RandomGenerator random, boolean buffered) {
+        int[] outX = buffered ? nextX : x;
+        int[] outY = buffered ? nextY : y;
+        int[] outCooldown = buffered ? nextCooldown : cooldown;
+        int[] outPatrolIndex = buffered ? nextPatrolIndex : patrolIndex;
+        FlowField flowField = world.getRobotFlowField();
+        boolean useFlowField = flowField.isTargeting(robotX, robotY);
+
+        for (int i = from, end = Math.min(to, chaserEnd); i < end; i++) {
+            int cx = x[i];
+            int cy = y[i];
+            int dx;
+            int dy;
+            if (random.nextDouble() < intelligence && Math.abs(cx - robotX) + Math.abs(cy - robotY) <= CHASE_RANGE) {
+                if (useFlowField && flowField.isReachable(cx, cy)) {
+                    dx = flowField.getStepDx(cx, cy);
+                    dy = flowField.getStepDy(cx, cy);
+                } else {
+                    dx = Integer.compare(robotX, cx);
+                    dy = Integer.compare(robotY, cy);
+                }
+            } else {
+                dx = random.nextInt(3) - 1;
+                dy = random.nextInt(3) - 1;
+            }
+            if (world.isValidMove(cx + dx, cy + dy)) {
+                cx += dx;
+                cy += dy;
+            }
+            outX[i] = cx;
+            outY[i] = cy;
+            outCooldown[i] = cooldown[i];
+            outPatrolIndex[i] = patrolIndex[i];
+        }
+
+        for (int i = Math.max(from, chaserEnd), end = Math.min(to, patrollerEnd); i < end; i++) {
+            int px = x[i];
+            int py = y[i];
+            int index = patrolIndex[i];
+            if (random.nextDouble() < intelligence && Math.abs(px - robotX) + Math.abs(py - robotY) <= CHASE_RANGE) {
+                int dx;
+                int dy;
+                if (useFlowField && flowField.isReachable(px, py)) {
+                    dx = flowField.getStepDx(px, py);
+                    dy = flowField.getStepDy(px, py);
+                } else {
+                    dx = Integer.compare(robotX, px);
+                    dy = Integer.compare(robotY, py);
+                }
+                if (world.isValidMove(px + dx, py + dy)) {
+                    px += dx;
+                    py += dy;
+                }
+            } else if (routes[i] != null) {
+                // On the route the next cell is always one step away; off it,
+                // walk the path planReturns found back to where it left off
+                PatrolRoute route = routes[i];
+                int target = route.get(index);
+                int[] path = returnPaths[i];
+                if (px == PatrolRoute.unpackX(target) && py == PatrolRoute.unpackY(target)) {
+                    index = (index + 1) % route.length();
+                    target = route.get(index);
+                    px = PatrolRoute.unpackX(target);
+                    py = PatrolRoute.unpackY(target);
+                } else if (path != null && returnStep[i] < path.length) {
+                    int next = path[returnStep[i]++];
+                    px = PatrolRoute.unpackX(next);
+                    py = PatrolRoute.unpackY(next);
+                } else {
+                    // No way back from here; step straight at the route
+                    int dx = Integer.compare(PatrolRoute.unpackX(target), px);
+                    int dy = Integer.compare(PatrolRoute.unpackY(target), py);
+                    if (world.isValidMove(px + dx, py + dy)) {
+                        px += dx;
+                        py += dy;
+                    }
+                }
+                returnFrom[i] = PatrolRoute.pack(px, py);
+            } else {
+                int point = (i * PATROL_POINTS + index) * 2;
+                int targetX = patrolPoints[point];
+                int targetY = patrolPoints[point + 1];
+                int dx = Integer.compare(targetX, px);
+                int dy = Integer.compare(targetY, py);
+                if (world.isValidMove(px + dx, py + dy)) {
+                    px += dx;
+                    py += dy;
+                }
+                if (px == targetX && py == targetY) {
+                    index = (index + 1) % PATROL_POINTS;
+                }
+            }
+            outX[i] = px;
+            outY[i] = py;
+            outCooldown[i] = cooldown[i];
+            outPatrolIndex[i] = index;
+        }
+
+        for (int i = Math.max(from, patrollerEnd); i < to; i++) {
+            int tx = x[i];
+            int ty = y[i];
+            int wait = cooldown[i];
+            boolean randomStep = false;
+            if (random.nextDouble() < intelligence) {
+                if (wait == 0) {
+                    randomStep = true;
+                    for (int attempt = 0; attempt < TELEPORT_ATTEMPTS; attempt++) {
+                        int newX = robotX + random.nextInt(5) - 2;
+                        int newY = robotY + random.nextInt(5) - 2;
+                        if (world.isValidMove(newX, newY)) {
+                            tx = newX;
+                            ty = newY;
+                            wait = TELEPORT_COOLDOWN;
+                            randomStep = false;
+                            break;
+                        }
+                    }
+                } else {
+                    int dx = Integer.compare(robotX, tx);
+                    int dy = Integer.compare(robotY, ty);
+                    if (world.isValidMove(tx + dx, ty + dy)) {
+                        tx += dx;
+                        ty += dy;
+                    }
+                    wait--;
+                }
+            } else if (wait == 0) {
+                wait = TELEPORT_COOLDOWN;
+                for (int attempt = 0; attempt < TELEPORT_ATTEMPTS; attempt++) {
+                    int[] position = world.getRandomUnvisitedCell(random);
+                    if (world.isValidMove(position[0], position[1])) {
+                        tx = position[0];
+                        ty = position[1];
+                        break;
+                    }
+                }
+            } else {
+                wait--;
+                randomStep = true;
+            }
+            if (randomStep) {
+                int dx = random.nextInt(3) - 1;
+                int dy = random.nextInt(3) - 1;
+                if (world.isValidMove(tx + dx, ty + dy)) {
+                    tx += dx;
+                    ty += dy;
+                }
+            }
+            outX[i] = tx;
+            outY[i] = ty;
+            outCooldown[i] = wait;
+            outPatrolIndex[i] = patrolIndex[i];
+        }
+    }
+
+    /**
+     * Counts the entities within a Manhattan distance of a cell.
+     * @param cellX The x-coordinate of the cell
+     * @param cellY The y-coordinate of the cell
+     * @param radius The maximum distance to count
+     * @return The number of entities within the radius
+     */
+    public int countWithin(int cellX, int cellY, int radius) {
+        int found = 0;
+        for (int i = 0; i < count; i++) {
+            int distance = Math.abs(x[i] - cellX) + Math.abs(y[i] - cellY);
+            found += distance <= radius ? 1 : 0;
+        }
+        return found;
+    }
+
+    /**
+     * Counts the entities on a cell and next to it in one pass.
+     * @param cellX The x-coordinate of the cell
+     * @param cellY The y-coordinate of the cell
+     * @return {on the cell, one step away}
+     */
+    public int[] countAround(int cellX, int cellY) {
+        int on = 0;
+        int adjacent = 0;
+        for (int i = 0; i < count; i++) {
+            int distance = Math.abs(x[i] - cellX) + Math.abs(y[i] - cellY);
+            on += distance == 0 ? 1 : 0;
+            adjacent += distance == 1 ? 1 : 0;
+        }
+        return new int[]{on, adjacent};
+    }
+
+    /**
+     * Checks if any entity stands on a cell.
+     * @param cellX The x-coordinate of the cell
+     * @param cellY The y-coordinate of the cell
+     * @return true if the cell is occupied, false otherwise
+     */
+    public boolean isOccupied(int cellX, int cellY) {
+        for (int i = 0; i < count; i++) {
+            if (x[i] == cellX && y[i] == cellY) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static double intelligence(Difficulty difficulty) {
+        switch (difficulty) {
+            case EASY: return 0.3;
+            case MEDIUM: return 0.5;
+            case HARD: return 0.7;
+            default: return 0.5;
+        }
+    }
+
+    /**
+     * Puts one entity back into an earlier state, for undo.
+     * @param index The entity to restore
+     * @param newX The x-coordinate
+     * @param newY The y-coordinate
+     * @param newCooldown The teleport cooldown
+     * @param newPatrolIndex The patrol point or route index
+     */
+    public void restore(int index, int newX, int newY, int newCooldown, int newPatrolIndex) {
+        x[index] = newX;
+        y[index] = newY;
+        cooldown[index] = newCooldown;
+        patrolIndex[index] = newPatrolIndex;
+        // The cached way back may start elsewhere now; find it again if needed
+        returnPaths[index] = null;
+    }
+
+    //Getters
+    public int size() {
+        return count;
+    }
+
+    public int getX(int index) {
+        return x[index];
+    }
+
+    public int getY(int index) {
+        return y[index];
+    }
+
+    public BadGuyType getType(int index) {
+        return BadGuyType.values()[type[index]];
+    }
+
+    public int getCooldown(int index) {
+        return cooldown[index];
+    }
+
+    public int getPatrolIndex(int index) {
+        return patrolIndex[index];
+    }
+
+    /**
+     * Gets how many moves were cancelled by conflicts in the last buffered update.
+     * @return The number of cancelled moves
+     */
+    public int getLastConflicts() {
+        return lastConflicts;
+    }
+
+    /**
+     * Gets the number of entities of one type.
+     * @param badGuyType The type to count
+     * @return The number of entities of that type
+     */
+    public int count(BadGuyType badGuyType) {
+        switch (badGuyType) {
+            case CHASER: return chaserEnd;
+            case PATROLLER: return patrollerEnd - chaserEnd;
+            default: return count - patrollerEnd;
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package goforthegold.model;
 
+import java.util.random.RandomGenerator;
+
 /**
  * Represents a chaser type bad guy.
  */
@@ -9,32 +11,27 @@ public class ChaserBadGuy extends BadGuy {
     }
 
    @Override
-   public void move(World world ,Robot robot,Difficulty difficulty){
-       if(Math.random()<getDifficultyIntelligence(difficulty)){
-           moveIntelligently(world ,robot);
+   public void move(World world ,Robot robot,Difficulty difficulty,RandomGenerator random){
+       if(random.nextDouble()<getDifficultyIntelligence(difficulty)){
+           moveIntelligently(world ,robot,random);
        }else{
-           moveRandomly(world);
+           moveRandomly(world,random);
        }
    }
 
-   private void moveIntelligently(World world ,Robot robot){
+   private void moveIntelligently(World world ,Robot robot,RandomGenerator random){
        if(distanceToRobot(robot)<=3){
            
-           int dx=Integer.compare(robot.getX(),x);
-           int dy=Integer.compare(robot.getY(),y);
-           if(world.isValidMove(x+dx,y+dy)){
-               x+=dx;
-               y+=dy;
-           } 
+           stepTowardsRobot(world ,robot);
        } else { 
-           moveRandomly(world); 
+           moveRandomly(world,random); 
        }
    }
 
-   private void moveRandomly(World world){
+   private void moveRandomly(World world,RandomGenerator random){
        
-       int dx=(int)(Math.random()*3)-1; 
-       int dy=(int)(Math.random()*3)-1; 
+       int dx=random.nextInt(3)-1; 
+       int dy=random.nextInt(3)-1; 
        if(world.isValidMove(x+dx,y+dy)){ 
            x+=dx; 
            y+=dy; 
@@ -0,0 +1,167 @@
+package goforthegold.model;
+
+/**
+ * Breadth-first flow field toward a single target cell.
+ *
+ * One BFS from the target fills in, for every reachable cell, its distance
+ * to the target and the first step of a shortest path there. Any number of
+ * pursuers can then read their best next step in O(1), so smart pursuit
+ * costs one grid traversal per tick however many enemies there are.
+ */
+public class FlowField {
+    private static final int[] DX = {0, -1, 1, 0, 0};
+    private static final int[] DY = {0, 0, 0, -1, 1};
+
+    private final int size;
+    private final int[] distance;
+    private final byte[] direction;
+    private final int[] stamp;
+    private final int[] queue;
+    private int generation;
+    private int targetX = -1;
+    private int targetY = -1;
+    private boolean partial;
+
+    /**
+     * Constructs a new FlowField for a square grid.
+     * @param size The size of the grid
+     */
+    public FlowField(int size) {
+        this.size = size;
+        this.distance = new int[size * size];
+        this.direction = new byte[size * size];
+        this.stamp = new int[size * size];
+        this.queue = new int[size * size];
+    }
+
+    /**
+     * Recomputes the field toward a target, unless it already points there.
+     * @param world The world whose obstacles block movement
+     * @param newTargetX The x-coordinate of the target
+     * @param newTargetY The y-coordinate of the target
+     */
+    public void update(World world, int newTargetX, int newTargetY) {
+        if (newTargetX == targetX && newTargetY == targetY && !partial) {
+            return;
+        }
+        search(world, newTargetX, newTargetY, -1);
+        partial = false;
+    }
+
+    /**
+     * Searches from a target only until one start cell is reached. Afterwards
+     * the steps from that start cell lead along a shortest path to the target,
+     * but the rest of the field is incomplete and {@link #isTargeting} is false.
+     * @param world The world whose obstacles block movement
+     * @param newTargetX The x-coordinate of the target
+     * @param newTargetY The y-coordinate of the target
+     * @param startX The x-coordinate of the cell to stop at
+     * @param startY The y-coordinate of the cell to stop at
+     */
+    public void updateUntil(World world, int newTargetX, int newTargetY, int startX, int startY) {
+        boolean startInside = startX >= 0 && startX < size && startY >= 0 && startY < size;
+        search(world, newTargetX, newTargetY, startInside ? startX * size + startY : -1);
+        partial = true;
+    }
+
+    private void search(World world, int newTargetX, int newTargetY, int stopCell) {
+        targetX = newTargetX;
+        targetY = newTargetY;
+        generation++;
+        if (newTargetX < 0 || newTargetX >= size || newTargetY < 0 || newTargetY >= size) {
+            return;
+        }
+
+        int head = 0;
+        int tail = 0;
+        int start = newTargetX * size + newTargetY;
+        stamp[start] = generation;
+        distance[start] = 0;
+        direction[start] = 0;
+        queue[tail++] = start;
+
+        while (head < tail) {
+            int cell = queue[head++];
+            if (cell == stopCell) {
+                return;
+            }
+            int cx = cell / size;
+            int cy = cell % size;
+            for (int d = 1; d <= 4; d++) {
+                int nx = cx + DX[d];
+                int ny = cy + DY[d];
+                if (!world.isValidMove(nx, ny)) {
+                    continue;
+                }
+                int next = nx * size + ny;
+                if (stamp[next] == generation) {
+                    continue;
+                }
+                stamp[next] = generation;
+                distance[next] = distance[cell] + 1;
+                // Stepping back the way we came leads toward the target
+                direction[next] = (byte) (d % 2 == 1 ? d + 1 : d - 1);
+                queue[tail++] = next;
+            }
+        }
+    }
+
+    /**
+     * Forgets the current target so the next update recomputes the field.
+     */
+    public void invalidate() {
+        targetX = -1;
+        targetY = -1;
+        partial = false;
+    }
+
+    /**
+     * Checks if the field currently leads to the given cell.
+     * @param x The x-coordinate of the cell
+     * @param y The y-coordinate of the cell
+     * @return true if the field was computed toward that cell
+     */
+    public boolean isTargeting(int x, int y) {
+        return x == targetX && y == targetY && !partial;
+    }
+
+    /**
+     * Checks if the target can be reached from a cell.
+     * @param x The x-coordinate of the cell
+     * @param y The y-coordinate of the cell
+     * @return true if there is a path to the target
+     */
+    public boolean isReachable(int x, int y) {
+        return x >= 0 && x < size && y >= 0 && y < size && stamp[x * size + y] == generation;
+    }
+
+    /**
+     * Gets the path distance from a cell to the target.
+     * @param x The x-coordinate of the cell
+     * @param y The y-coordinate of the cell
+     * @return The number of steps, or -1 if the target cannot be reached
+     */
+    public int getDistance(int x, int y) {
+        return isReachable(x, y) ? distance[x * size + y] : -1;
+    }
+
+    /**
+     * Gets the x part of the best next step from a cell.
+     * @return -1, 0 or 1; 0 at the target or when unreachable
+     */
+    public int getStepDx(int x, int y) {
+        return isReachable(x, y) ? DX[direction[x * size + y]] : 0;
+    }
+
+    /**
+     * Gets the y part of the best next step from a cell.
+     * @return -1, 0 or 1; 0 at the target or when unreachable
+     */
+    public int getStepDy(int x, int y) {
+        return isReachable(x, y) ? DY[direction[x * size + y]] : 0;
+    }
+
+    public int getSize() {
+        return size;
+    }
+}
@@ -47,8 +47,9 @@ public class HashTable<K, V> {
 
     public void remove(K key) {
         int index = getIndex(key);
-        buckets.get(index).removeIf(entry -> entry.key.equals(key));
-        size--;
+        if (buckets.get(index).removeIf(entry -> entry.key.equals(key))) {
+            size--;
+        }
     }
 
     private int getIndex(K key) {
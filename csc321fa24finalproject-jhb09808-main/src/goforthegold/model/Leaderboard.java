@@ -0,0 +1,354 @@
+package goforthegold.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Every score ever submitted, ordered best first, with rank queries.
+ *
+ * The scores are kept in a treap whose nodes also count the size of their
+ * subtree, so inserting, finding the rank of a score and fetching the score
+ * at a rank all take O(log n) expected time. Equal scores keep the order
+ * they were added in. Nodes are packed into an int array rather than being
+ * objects, so millions of scores cost a few ints each on top of the Score
+ * itself.
+ */
+public class Leaderboard {
+    private static final int NIL = -1;
+    // Each node's ints sit side by side, so a step down the tree touches
+    // one cache line instead of one per field
+    private static final int VALUE = 0;
+    private static final int LEFT = 1;
+    private static final int RIGHT = 2;
+    private static final int COUNT = 3;
+    private static final int PRIORITY = 4;
+    private static final int STRIDE = 5;
+
+    private Score[] scores;
+    private int[] nodes;
+    private int root = NIL;
+    private int size;
+
+    /**
+     * Constructs a new, empty Leaderboard.
+     */
+    public Leaderboard() {
+        scores = new Score[16];
+        nodes = new int[16 * STRIDE];
+    }
+
+    /**
+     * Adds a score in O(log n) expected time.
+     * @param score The score to add
+     */
+    public void add(Score score) {
+        if (size == scores.length) {
+            scores = Arrays.copyOf(scores, size * 2);
+            nodes = Arrays.copyOf(nodes, size * 2 * STRIDE);
+        }
+        int node = size++;
+        int at = node * STRIDE;
+        scores[node] = score;
+        nodes[at + VALUE] = score.getScore();
+        nodes[at + LEFT] = NIL;
+        nodes[at + RIGHT] = NIL;
+        nodes[at + COUNT] = 1;
+        nodes[at + PRIORITY] = mix(node);
+        root = insert(root, node);
+    }
+
+    /**
+     * Adds many scores at once. The tree is rebuilt from the merged order in
+     * O(n + m) time instead of m inserts, and comes out exactly as if the
+     * scores had been added one by one. Small batches are inserted.
+     * @param added The scores, in the order they were added
+     * @param ranking Positions in added, best score first and equal scores
+     *                in the order added
+     */
+    public void addAll(List<Score> added, int[] ranking) {
+        int batch = added.size();
+        if (batch < size / 16) {
+            for (Score score : added) {
+                add(score);
+            }
+            return;
+        }
+        int total = size + batch;
+        if (total > scores.length) {
+            int capacity = Math.max(total, size * 2);
+            scores = Arrays.copyOf(scores, capacity);
+            nodes = Arrays.copyOf(nodes, capacity * STRIDE);
+        }
+
+        // Merge the tree's order with the batch's; on equal scores the older node comes first
+        int[] order = new int[total];
+        int existing = inOrder(order);
+        int base = size;
+        for (int i = 0; i < batch; i++) {
+            int node = base + i;
+            scores[node] = added.get(i);
+            nodes[node * STRIDE + VALUE] = added.get(i).getScore();
+            nodes[node * STRIDE + PRIORITY] = mix(node);
+        }
+        int[] merged = new int[total];
+        int from = 0;
+        int next = 0;
+        for (int i = 0; i < total; i++) {
+            if (next == batch || (from < existing && nodes[order[from] * STRIDE + VALUE] >= nodes[(base + ranking[next]) * STRIDE + VALUE])) {
+                merged[i] = order[from++];
+            } else {
+                merged[i] = base + ranking[next++];
+            }
+        }
+        size = total;
+        root = build(merged);
+    }
+
+    /**
+     * Writes the nodes in order, best first.
+     * @return The number of nodes written
+     */
+    private int inOrder(int[] order) {
+        int written = 0;
+        int[] stack = new int[64];
+        int depth = 0;
+        int tree = root;
+        while (tree != NIL || depth > 0) {
+            while (tree != NIL) {
+                if (depth == stack.length) {
+                    stack = Arrays.copyOf(stack, depth * 2);
+                }
+                stack[depth++] = tree;
+                tree = left(tree);
+            }
+            tree = stack[--depth];
+            order[written++] = tree;
+            tree = right(tree);
+        }
+        return written;
+    }
+
+    /**
+     * Builds the treap over nodes already in order with one pass of a stack:
+     * a node adopts the lower-priority nodes it pops as its left subtree and
+     * becomes the right child of the node left on top. A popped node's
+     * subtree is final, so its count is set then.
+     */
+    private int build(int[] order) {
+        int[] stack = new int[64];
+        int depth = 0;
+        for (int node : order) {
+            int at = node * STRIDE;
+            int last = NIL;
+            while (depth > 0 && nodes[stack[depth - 1] * STRIDE + PRIORITY] < nodes[at + PRIORITY]) {
+                last = stack[--depth];
+                finish(last);
+            }
+            nodes[at + LEFT] = last;
+            nodes[at + RIGHT] = NIL;
+            if (depth > 0) {
+                nodes[stack[depth - 1] * STRIDE + RIGHT] = node;
+            }
+            if (depth == stack.length) {
+                stack = Arrays.copyOf(stack, depth * 2);
+            }
+            stack[depth++] = node;
+        }
+        while (depth > 1) {
+            finish(stack[--depth]);
+        }
+        if (depth == 0) {
+            return NIL;
+        }
+        finish(stack[0]);
+        return stack[0];
+    }
+
+    private void finish(int tree) {
+        nodes[tree * STRIDE + COUNT] = 1 + count(left(tree)) + count(right(tree));
+    }
+
+    private int insert(int tree, int node) {
+        if (tree == NIL) {
+            return node;
+        }
+        int at = tree * STRIDE;
+        nodes[at + COUNT]++;
+        // The new node is the newest, so on equal scores it goes right
+        if (nodes[node * STRIDE + VALUE] > nodes[at + VALUE]) {
+            int child = insert(nodes[at + LEFT], node);
+            nodes[at + LEFT] = child;
+            if (nodes[child * STRIDE + PRIORITY] > nodes[at + PRIORITY]) {
+                return rotateRight(tree);
+            }
+        } else {
+            int child = insert(nodes[at + RIGHT], node);
+            nodes[at + RIGHT] = child;
+            if (nodes[child * STRIDE + PRIORITY] > nodes[at + PRIORITY]) {
+                return rotateLeft(tree);
+            }
+        }
+        return tree;
+    }
+
+    private int rotateRight(int tree) {
+        int top = left(tree);
+        nodes[tree * STRIDE + LEFT] = right(top);
+        nodes[top * STRIDE + RIGHT] = tree;
+        nodes[top * STRIDE + COUNT] = nodes[tree * STRIDE + COUNT];
+        nodes[tree * STRIDE + COUNT] = 1 + count(left(tree)) + count(right(tree));
+        return top;
+    }
+
+    private int rotateLeft(int tree) {
+        int top = right(tree);
+        nodes[tree * STRIDE + RIGHT] = left(top);
+        nodes[top * STRIDE + LEFT] = tree;
+        nodes[top * STRIDE + COUNT] = nodes[tree * STRIDE + COUNT];
+        nodes[tree * STRIDE + COUNT] = 1 + count(left(tree)) + count(right(tree));
+        return top;
+    }
+
+    private int left(int tree) {
+        return nodes[tree * STRIDE + LEFT];
+    }
+
+    private int right(int tree) {
+        return nodes[tree * STRIDE + RIGHT];
+    }
+
+    private int count(int tree) {
+        return tree == NIL ? 0 : nodes[tree * STRIDE + COUNT];
+    }
+
+    /**
+     * Heap priority for a node, a fixed mix of its index so the shape of
+     * the tree does not depend on a random generator.
+     */
+    private static int mix(int node) {
+        int h = node * 0x9E3779B9;
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        return h;
+    }
+
+    /**
+     * Counts the scores strictly better than a value.
+     * @param score The score value
+     * @return The number of scores above it
+     */
+    public int countAbove(int score) {
+        int above = 0;
+        int tree = root;
+        while (tree != NIL) {
+            if (nodes[tree * STRIDE + VALUE] > score) {
+                above += count(left(tree)) + 1;
+                tree = right(tree);
+            } else {
+                tree = left(tree);
+            }
+        }
+        return above;
+    }
+
+    /**
+     * Gets the rank a score value would have, where 1 is the best. Equal
+     * scores share a rank.
+     * @param score The score value
+     * @return The rank, from 1 to size() + 1
+     */
+    public int rankOf(int score) {
+        return countAbove(score) + 1;
+    }
+
+    /**
+     * Gets the score at a rank.
+     * @param rank The rank, from 1 (best) to size()
+     * @return The score at that rank
+     */
+    public Score get(int rank) {
+        if (rank < 1 || rank > size) {
+            throw new IndexOutOfBoundsException("Rank " + rank + " is outside 1.." + size);
+        }
+        int index = rank - 1;
+        int tree = root;
+        while (true) {
+            int leftCount = count(left(tree));
+            if (index < leftCount) {
+                tree = left(tree);
+            } else if (index == leftCount) {
+                return scores[tree];
+            } else {
+                index -= leftCount + 1;
+                tree = right(tree);
+            }
+        }
+    }
+
+    /**
+     * Gets every score in the order it was added.
+     * @return The scores, oldest first
+     */
+    public List<Score> inOrderAdded() {
+        return new ArrayList<>(Arrays.asList(scores).subList(0, size));
+    }
+
+    /**
+     * Gets the best scores in order, in O(log n + k) time.
+     * @param k The number of scores wanted
+     * @return Up to k scores, best first
+     */
+    public List<Score> top(int k) {
+        List<Score> top = new ArrayList<>(Math.min(k, size));
+        int[] stack = new int[64];
+        int depth = 0;
+        int tree = root;
+        while ((tree != NIL || depth > 0) && top.size() < k) {
+            while (tree != NIL) {
+                if (depth == stack.length) {
+                    stack = Arrays.copyOf(stack, depth * 2);
+                }
+                stack[depth++] = tree;
+                tree = left(tree);
+            }
+            tree = stack[--depth];
+            top.add(scores[tree]);
+            tree = right(tree);
+        }
+        return top;
+    }
+
+    /**
+     * Gets the percentage of scores at or below a value.
+     * @param score The score value
+     * @return The percentile, from 0 to 100
+     */
+    public double percentileOf(int score) {
+        return size == 0 ? 0 : 100.0 * (size - countAbove(score)) / size;
+    }
+
+    /**
+     * Gets the lowest score that at least the given percentage of scores
+     * are at or below.
+     * @param percentile The percentile, from 0 to 100
+     * @return The score at that percentile
+     */
+    public Score atPercentile(double percentile) {
+        if (size == 0) {
+            throw new IllegalStateException("The leaderboard is empty");
+        }
+        int atOrBelow = (int) Math.ceil(Math.max(0, Math.min(100, percentile)) / 100.0 * size);
+        return get(size - Math.max(1, atOrBelow) + 1);
+    }
+
+    //Getters
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+}
@@ -0,0 +1,151 @@
+package goforthegold.model;
+
+import java.util.Arrays;
+
+/**
+ * A closed patrol loop through a list of points, built from real shortest
+ * paths between consecutive points.
+ *
+ * Cells are stored as packed ints ({@code x << 16 | y}), so following the
+ * route is just an index increment. Routes never change once built and are
+ * shared between every patroller with the same points through
+ * {@link World#getPatrolRoute(int[][])}.
+ */
+public class PatrolRoute {
+    private final int[] cells;
+
+    private PatrolRoute(int[] cells) {
+        this.cells = cells;
+    }
+
+    /**
+     * Builds the loop through the given points. Points that cannot be
+     * reached from the previous one are skipped.
+     * @param world The world whose obstacles block movement
+     * @param points The patrol points as {x, y} pairs
+     * @return The route, or null if fewer than two points are reachable from each other
+     */
+    public static PatrolRoute build(World world, int[][] points) {
+        return build(world, points, new FlowField(world.getSize()));
+    }
+
+    /**
+     * Builds the loop through the given points, reusing a scratch flow field.
+     * @param world The world whose obstacles block movement
+     * @param points The patrol points as {x, y} pairs
+     * @param field A flow field of the world's size to search with
+     * @return The route, or null if fewer than two points are reachable from each other
+     */
+    public static PatrolRoute build(World world, int[][] points, FlowField field) {
+        int[] route = new int[16];
+        int length = 0;
+        int first = -1;
+        int previous = -1;
+        for (int i = 0; i <= points.length; i++) {
+            int stop;
+            if (i < points.length) {
+                if (!world.isValidMove(points[i][0], points[i][1])) {
+                    continue;
+                }
+                stop = pack(points[i][0], points[i][1]);
+                if (previous == -1) {
+                    first = stop;
+                    previous = stop;
+                    continue;
+                }
+            } else if (previous == first) {
+                return null;
+            } else {
+                // Every stop is connected to the one before it, so the leg
+                // back to the first stop always exists.
+                stop = first;
+            }
+
+            field.updateUntil(world, unpackX(stop), unpackY(stop), unpackX(previous), unpackY(previous));
+            if (!field.isReachable(unpackX(previous), unpackY(previous))) {
+                continue;
+            }
+            int x = unpackX(previous);
+            int y = unpackY(previous);
+            while (x != unpackX(stop) || y != unpackY(stop)) {
+                if (length == route.length) {
+                    route = Arrays.copyOf(route, length * 2);
+                }
+                route[length++] = pack(x, y);
+                int dx = field.getStepDx(x, y);
+                int dy = field.getStepDy(x, y);
+                x += dx;
+                y += dy;
+            }
+            previous = stop;
+        }
+        if (length < 2) {
+            return null;
+        }
+        return new PatrolRoute(Arrays.copyOf(route, length));
+    }
+
+    /**
+     * Finds a shortest path between two cells, searching with the world's
+     * scratch route field so nothing grid-sized is allocated per call.
+     * @param world The world whose obstacles block movement
+     * @return The packed cells after the start up to and including the goal,
+     *         or an empty array if the goal cannot be reached
+     */
+    public static int[] findPath(World world, int fromX, int fromY, int toX, int toY) {
+        FlowField field = world.getRouteField();
+        field.updateUntil(world, toX, toY, fromX, fromY);
+        int distance = field.getDistance(fromX, fromY);
+        if (distance <= 0) {
+            return new int[0];
+        }
+        int[] path = new int[distance];
+        int x = fromX;
+        int y = fromY;
+        for (int i = 0; i < distance; i++) {
+            int dx = field.getStepDx(x, y);
+            int dy = field.getStepDy(x, y);
+            x += dx;
+            y += dy;
+            path[i] = pack(x, y);
+        }
+        return path;
+    }
+
+    /**
+     * Finds the index of a cell on the route.
+     * @param x The x-coordinate of the cell
+     * @param y The y-coordinate of the cell
+     * @return The first index of the cell, or -1 if it is not on the route
+     */
+    public int indexOf(int x, int y) {
+        int packed = pack(x, y);
+        for (int i = 0; i < cells.length; i++) {
+            if (cells[i] == packed) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public static int pack(int x, int y) {
+        return x << 16 | y;
+    }
+
+    public static int unpackX(int packed) {
+        return packed >>> 16;
+    }
+
+    public static int unpackY(int packed) {
+        return packed & 0xFFFF;
+    }
+
+    //Getters
+    public int get(int index) {
+        return cells[index];
+    }
+
+    public int length() {
+        return cells.length;
+    }
+}
@@ -1,21 +1,54 @@
 package goforthegold.model;
 
+import java.util.random.RandomGenerator;
+
 /**
  * Represents a patroller type bad guy.
  */
 public class PatrollerBadGuy extends BadGuy {
     private int[][] patrolPoints;
     private int currentPointIndex;
+    private PatrolRoute route;
+    private int routeIndex;
+    private int[] returnPath;
+    private int returnIndex;
+    private int returnFrom;
 
     public PatrollerBadGuy(int x,int y,int[][] patrolPoints){
+       this(x,y,patrolPoints,null);
+   }
+
+    /**
+     * Constructs a patroller that follows a precomputed route.
+     * @param x The x-coordinate of the bad guy
+     * @param y The y-coordinate of the bad guy
+     * @param patrolPoints The points the route was built from
+     * @param route The shared route, or null to step greedily between the points
+     */
+    public PatrollerBadGuy(int x,int y,int[][] patrolPoints,PatrolRoute route){
        super(x,y,BadGuyType.PATROLLER);
        this.patrolPoints=patrolPoints;
        this.currentPointIndex=0;
+       this.route=route;
+       this.routeIndex=0;
+   }
+
+   @Override
+   public int saveState(){
+       return routeIndex<<2 | currentPointIndex;
    }
 
    @Override
-   public void move(World world ,Robot robot,Difficulty difficulty){
-       if(Math.random()<getDifficultyIntelligence(difficulty)){
+   protected void restoreState(int state){
+       routeIndex=state>>>2;
+       currentPointIndex=state&3;
+       // The cached way back may start elsewhere now; find it again if needed
+       returnPath=null;
+   }
+
+   @Override
+   public void move(World world ,Robot robot,Difficulty difficulty,RandomGenerator random){
+       if(random.nextDouble()<getDifficultyIntelligence(difficulty)){
            moveIntelligently(world ,robot);
        }else{
            movePatrol(world);
@@ -25,23 +58,17 @@ public class PatrollerBadGuy extends BadGuy {
    private void moveIntelligently(World world ,Robot robot){
        if(distanceToRobot(robot)<=3){
            
-           moveTowardsRobot(world ,robot);
+           stepTowardsRobot(world ,robot);
        }else{
            movePatrol(world);
        }
    }
 
-   private void moveTowardsRobot(World world ,Robot robot){
-       
-       int dx=Integer.compare(robot.getX(),x);
-       int dy=Integer.compare(robot.getY(),y);
-       if(world.isValidMove(x+dx,y+dy)){
-           x+=dx;
-           y+=dy;
-       }
-   }
-
    private void movePatrol(World world){
+       if(route!=null){
+           followRoute(world);
+           return;
+       }
        
        int[] target=patrolPoints[currentPointIndex];
        int dx=Integer.compare(target[0],x);
@@ -54,4 +81,39 @@ public class PatrollerBadGuy extends BadGuy {
            currentPointIndex=(currentPointIndex+1)%patrolPoints.length;
        }
    }
+
+   /**
+    * Steps to the next cell of the route. After being pulled off the route
+    * by a chase, walks a shortest path back to where it left off first.
+    */
+   private void followRoute(World world){
+       int current=route.get(routeIndex);
+       if(x==PatrolRoute.unpackX(current) && y==PatrolRoute.unpackY(current)){
+           returnPath=null;
+           routeIndex=(routeIndex+1)%route.length();
+           int next=route.get(routeIndex);
+           x=PatrolRoute.unpackX(next);
+           y=PatrolRoute.unpackY(next);
+           return;
+       }
+
+       if(returnPath==null || PatrolRoute.pack(x,y)!=returnFrom){
+           returnPath=PatrolRoute.findPath(world,x,y,PatrolRoute.unpackX(current),PatrolRoute.unpackY(current));
+           returnIndex=0;
+       }
+       if(returnIndex<returnPath.length){
+           int next=returnPath[returnIndex++];
+           x=PatrolRoute.unpackX(next);
+           y=PatrolRoute.unpackY(next);
+       }else{
+           // No way back from here; step straight at the route like before
+           int dx=Integer.compare(PatrolRoute.unpackX(current),x);
+           int dy=Integer.compare(PatrolRoute.unpackY(current),y);
+           if(world.isValidMove(x+dx,y+dy)){
+               x+=dx;
+               y+=dy;
+           }
+       }
+       returnFrom=PatrolRoute.pack(x,y);
+   }
 }
\ No newline at end of file
@@ -0,0 +1,35 @@
+package goforthegold.model;
+
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGeneratorFactory;
+
+/**
+ * Creates the random generators games use by default.
+ * Each game owns its own Xoshiro256++ generator, which is fast and not
+ * synchronized, so games running on different threads never contend on a
+ * shared seed the way Math.random() and java.util.Random do.
+ */
+public final class RandomSource {
+    public static final String ALGORITHM = "Xoshiro256PlusPlus";
+    private static final RandomGeneratorFactory<RandomGenerator> FACTORY = RandomGeneratorFactory.of(ALGORITHM);
+
+    private RandomSource() {
+    }
+
+    /**
+     * Creates a new generator with a fresh, unpredictable seed.
+     * @return The new generator
+     */
+    public static RandomGenerator create() {
+        return FACTORY.create();
+    }
+
+    /**
+     * Creates a new generator from a fixed seed.
+     * @param seed The seed
+     * @return The new generator
+     */
+    public static RandomGenerator create(long seed) {
+        return FACTORY.create(seed);
+    }
+}
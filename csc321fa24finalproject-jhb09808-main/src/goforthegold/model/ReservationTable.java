@@ -0,0 +1,111 @@
+package goforthegold.model;
+
+import java.util.Arrays;
+
+/**
+ * Space-time reservations for cooperative pathfinding: which robot will be
+ * in which cell at which tick.
+ *
+ * Only a window of ticks is kept. Slots are reused by tick number modulo the
+ * window, and every slot remembers the tick it was written for, so old
+ * reservations expire on their own and nothing ever has to be cleared.
+ */
+public class ReservationTable {
+    public static final int NONE = -1;
+
+    private final int size;
+    private final int cells;
+    private final int slots;
+    private final int[] owner;
+    private final int[] time;
+
+    /**
+     * Constructs a new ReservationTable.
+     * @param size The size of the grid
+     * @param window The number of ticks ahead that can be reserved
+     */
+    public ReservationTable(int size, int window) {
+        this.size = size;
+        this.cells = size * size;
+        this.slots = window + 1;
+        this.owner = new int[slots * cells];
+        this.time = new int[slots * cells];
+        Arrays.fill(time, -1);
+    }
+
+    private int slot(int x, int y, int t) {
+        return (t % slots) * cells + x * size + y;
+    }
+
+    /**
+     * Reserves a cell at a tick, replacing any older reservation of that slot.
+     * @param x The x-coordinate of the cell
+     * @param y The y-coordinate of the cell
+     * @param t The tick
+     * @param id The robot making the reservation
+     */
+    public void reserve(int x, int y, int t, int id) {
+        int slot = slot(x, y, t);
+        owner[slot] = id;
+        time[slot] = t;
+    }
+
+    /**
+     * Drops a reservation if it is still held by the given robot.
+     * @param x The x-coordinate of the cell
+     * @param y The y-coordinate of the cell
+     * @param t The tick
+     * @param id The robot that made the reservation
+     */
+    public void release(int x, int y, int t, int id) {
+        int slot = slot(x, y, t);
+        if (time[slot] == t && owner[slot] == id) {
+            time[slot] = -1;
+        }
+    }
+
+    /**
+     * Gets the robot that reserved a cell at a tick.
+     * @param x The x-coordinate of the cell
+     * @param y The y-coordinate of the cell
+     * @param t The tick
+     * @return The robot's id, or {@link #NONE}
+     */
+    public int getOwner(int x, int y, int t) {
+        int slot = slot(x, y, t);
+        return time[slot] == t ? owner[slot] : NONE;
+    }
+
+    /**
+     * Checks if a robot may step from one cell at tick t to another at t + 1:
+     * the target must be free and no other robot may be making the opposite
+     * step at the same time.
+     * @param fromX The x-coordinate of the cell at tick t
+     * @param fromY The y-coordinate of the cell at tick t
+     * @param toX The x-coordinate of the cell at tick t + 1
+     * @param toY The y-coordinate of the cell at tick t + 1
+     * @param t The tick the step starts at
+     * @param id The robot taking the step
+     * @return true if the step does not conflict with another robot
+     */
+    public boolean canStep(int fromX, int fromY, int toX, int toY, int t, int id) {
+        int target = getOwner(toX, toY, t + 1);
+        if (target != NONE && target != id) {
+            return false;
+        }
+        if (fromX == toX && fromY == toY) {
+            return true;
+        }
+        int swap = getOwner(toX, toY, t);
+        return swap == NONE || swap == id || getOwner(fromX, fromY, t + 1) != swap;
+    }
+
+    //Getters
+    public int getWindow() {
+        return slots - 1;
+    }
+
+    public int getSize() {
+        return size;
+    }
+}
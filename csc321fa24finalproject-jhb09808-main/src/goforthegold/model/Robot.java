@@ -1,7 +1,5 @@
 package goforthegold.model;
 
-import java.util.Stack;
-
 /**
  * Represents the robot player in the game.
  */
@@ -10,7 +8,6 @@ public class Robot {
     private int y;
     private double money;
     private static final double MOVE_COST = 100.00;
-    private Stack<int[]> moveHistory;
     private PowerUpType activePowerUp;
     private int powerUpDuration;
 
@@ -19,10 +16,19 @@ public class Robot {
      * @param initialMoney The starting amount of money for the robot
      */
     public Robot(double initialMoney) {
-        this.x = 0;
-        this.y = 0;
+        this(0, 0, initialMoney);
+    }
+
+    /**
+     * Constructs a new Robot at a starting position.
+     * @param x The starting x-coordinate
+     * @param y The starting y-coordinate
+     * @param initialMoney The starting amount of money for the robot
+     */
+    public Robot(int x, int y, double initialMoney) {
+        this.x = x;
+        this.y = y;
         this.money = initialMoney;
-        this.moveHistory = new Stack<>();
         this.activePowerUp = null;
         this.powerUpDuration = 0;
     }
@@ -33,7 +39,6 @@ public class Robot {
      * @param newY The new y-coordinate
      */
     public void move(int newX, int newY) {
-        moveHistory.push(new int[]{this.x, this.y});
         this.x = newX;
         this.y = newY;
         this.money -= MOVE_COST;
@@ -41,25 +46,25 @@ public class Robot {
         if (powerUpDuration > 0) {
             powerUpDuration--;
             if (powerUpDuration == 0) {
-                System.out.println(activePowerUp + " power-up has worn off.");
                 activePowerUp = null;
             }
         }
     }
     
     /**
-     * Undoes the last move of the robot.
-     * @return true if the move was undone successfully, false otherwise
+     * Puts the robot back into an earlier state, for undo.
+     * @param x The x-coordinate
+     * @param y The y-coordinate
+     * @param money The amount of money
+     * @param activePowerUp The active power-up, or null
+     * @param powerUpDuration The number of moves the power-up has left
      */
-    public boolean undoMove() {
-        if (!moveHistory.isEmpty()) {
-            int[] lastPosition = moveHistory.pop();
-            this.x = lastPosition[0];
-            this.y = lastPosition[1];
-            this.money += MOVE_COST;
-            return true;
-        }
-        return false;
+    public void restore(int x, int y, double money, PowerUpType activePowerUp, int powerUpDuration) {
+        this.x = x;
+        this.y = y;
+        this.money = money;
+        this.activePowerUp = activePowerUp;
+        this.powerUpDuration = powerUpDuration;
     }
 
     /**
@@ -85,7 +90,6 @@ public class Robot {
     public void applyPowerUp(PowerUp powerUp) {
         this.activePowerUp = powerUp.getType();
         this.powerUpDuration = 5; // Last for 5 moves
-        System.out.println("Robot activated " + activePowerUp + " power-up!");
     }
 
     //Getters
@@ -93,6 +97,10 @@ public class Robot {
         return activePowerUp;
     }
 
+    public int getPowerUpDuration() {
+        return powerUpDuration;
+    }
+
     public int getX() {
         return x;
     }
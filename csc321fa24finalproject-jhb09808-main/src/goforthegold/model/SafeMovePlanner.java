@@ -0,0 +1,423 @@
+package goforthegold.model;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Picks the robot's next move with one bounded-horizon search over
+ * (x, y, t) that accounts for where the bad guys may be.
+ *
+ * Bad guy threat is predicted from how far each bad guy could have moved by
+ * tick t: the odds that a cell is dangerous grow with the number of bad guys
+ * in reach, and that risk is added to the cost of being there. A cell next
+ * to a bad guy right now is never entered, which matches the old safety
+ * check. The robot may also wait in place. After the horizon the cost to go
+ * is the weighted distance to the nearest coin and to the gold, the same
+ * pull the A* heuristic uses.
+ *
+ * Every step takes exactly one tick, so the search runs layer by layer over
+ * time and looks at each (cell, t) once. Only cells within t steps of the
+ * robot can be reached by tick t, so every layer, the threat counts and the
+ * distances are worked out in a window around the robot. Near the robot the
+ * distances avoid the cells it has visited; beyond the window they come
+ * from whole-board fields over the obstacles alone, which are rebuilt only
+ * when the gold, the coins or the obstacles change. Apart from one pass over
+ * the bad guys, a tick costs the same on any board size.
+ */
+public class SafeMovePlanner {
+    public static final int DEFAULT_HORIZON = 6;
+    public static final int WAIT = -2;
+    public static final int NO_MOVE = -1;
+
+    private static final int[] DX = {0, -1, 1, 0, 0};
+    private static final int[] DY = {0, 0, 0, -1, 1};
+    private static final double STEP_COST = 100;
+    private static final double WAIT_COST = 60;
+    private static final double GOAL_WEIGHT = 100;
+    private static final double COIN_WEIGHT = 150;
+    private static final double RISK_WEIGHT = 3000;
+    private static final double RISK_DECAY = 0.8;
+    private static final double ESCAPE_ODDS = 0.3;
+    private static final double NEAR_ESCAPE_ODDS = 0.1;
+    private static final int CAUTION_RANGE = 3;
+    private static final double UNREACHABLE = 1e9;
+
+    private final int size;
+    private final int horizon;
+    private final int radius;
+    private final int threatReach;
+    private final int threatSide;
+    private final int[] threatCounts;
+    private final int[] goldFar;
+    private final int[] coinFar;
+    private final int[] queue;
+    private final int[] goldNear;
+    private final int[] coinNear;
+    private final int[] nearQueue;
+    private final long[] seeds;
+    private double[] cost;
+    private double[] nextCost;
+    private int[] first;
+    private int[] nextFirst;
+
+    private int goldVersion = -1;
+    private int goldCell = -1;
+    private int coinVersion = -1;
+    private long coinKey;
+    private int threatU;
+    private int threatV;
+    private int boxX;
+    private int boxY;
+    private int boxWidth;
+    private int boxHeight;
+
+    /**
+     * Constructs a new SafeMovePlanner.
+     * @param size The size of the grid
+     * @param horizon The number of ticks to look ahead
+     */
+    public SafeMovePlanner(int size, int horizon) {
+        this.size = size;
+        this.horizon = horizon;
+        // Distances avoid the robot's trail this far out, well past the horizon
+        this.radius = 2 * horizon;
+        // Farthest a counted bad guy can be from the robot, in rotated coordinates
+        this.threatReach = 2 * horizon - 1 + CAUTION_RANGE;
+        this.threatSide = 2 * threatReach + 1;
+        this.threatCounts = new int[(threatSide + 1) * (threatSide + 1)];
+        int cells = size * size;
+        this.goldFar = new int[cells];
+        this.coinFar = new int[cells];
+        this.queue = new int[cells];
+        int boxCells = (2 * radius + 1) * (2 * radius + 1);
+        this.goldNear = new int[boxCells];
+        this.coinNear = new int[boxCells];
+        this.nearQueue = new int[boxCells];
+        this.seeds = new long[boxCells];
+        this.cost = new double[boxCells];
+        this.nextCost = new double[boxCells];
+        this.first = new int[boxCells];
+        this.nextFirst = new int[boxCells];
+    }
+
+    /**
+     * Plans from the robot's cell and returns only the first move, since the
+     * plan is made again every tick with fresh bad guy positions.
+     * @param world The game world
+     * @param robotX The robot's x-coordinate
+     * @param robotY The robot's y-coordinate
+     * @param visited Cells the robot may not enter again, indexed [x][y]
+     * @param gold The gold
+     * @param coins The coins still on the board
+     * @param badGuys The regular bad guys
+     * @param swarm The swarm, or null
+     * @param allowWait Whether waiting is allowed as the first move
+     * @return The packed cell ({@link PatrolRoute#pack}) to move to,
+     *         {@link #WAIT}, or {@link #NO_MOVE} if every first move is unsafe
+     */
+    public int nextMove(World world, int robotX, int robotY, boolean[][] visited, Gold gold, List<Coin> coins,
+                        List<BadGuy> badGuys, BadGuySwarm swarm, boolean allowWait) {
+        countThreats(robotX, robotY, badGuys, swarm);
+        boxX = Math.max(0, robotX - radius);
+        boxY = Math.max(0, robotY - radius);
+        boxWidth = Math.min(size - 1, robotX + radius) - boxX + 1;
+        boxHeight = Math.min(size - 1, robotY + radius) - boxY + 1;
+        int boxCells = boxWidth * boxHeight;
+
+        updateFarDistances(world, gold, coins);
+        boolean hasCoins = !coins.isEmpty();
+        nearDistances(world, visited, robotX, robotY, goldFar, goldNear);
+        if (hasCoins) {
+            nearDistances(world, visited, robotX, robotY, coinFar, coinNear);
+        }
+        int goldX = gold.getX();
+        int goldY = gold.getY();
+
+        Arrays.fill(cost, 0, boxCells, Double.POSITIVE_INFINITY);
+        int start = local(robotX, robotY);
+        cost[start] = 0;
+        first[start] = NO_MOVE;
+        double best = Double.POSITIVE_INFINITY;
+        int bestMove = NO_MOVE;
+
+        for (int t = 0; t < horizon; t++) {
+            Arrays.fill(nextCost, 0, boxCells, Double.POSITIVE_INFINITY);
+            // Only the cells within t steps of the robot can have a cost
+            for (int x = Math.max(0, robotX - t), xEnd = Math.min(size - 1, robotX + t); x <= xEnd; x++) {
+                int spread = t - Math.abs(x - robotX);
+                for (int y = Math.max(0, robotY - spread), yEnd = Math.min(size - 1, robotY + spread); y <= yEnd; y++) {
+                    int cell = local(x, y);
+                    double here = cost[cell];
+                    if (here == Double.POSITIVE_INFINITY) {
+                        continue;
+                    }
+                    if (x == goldX && y == goldY && t > 0) {
+                        // Reaching the gold ends the game; nothing after it counts
+                        if (here < best) {
+                            best = here;
+                            bestMove = first[cell];
+                        }
+                        continue;
+                    }
+                    for (int d = 0; d < DX.length; d++) {
+                        int nx = x + DX[d];
+                        int ny = y + DY[d];
+                        if (d == 0) {
+                            if (t == 0 && !allowWait) {
+                                continue;
+                            }
+                        } else if (!world.isValidMove(nx, ny) || visited[nx][ny] || (nx == robotX && ny == robotY)) {
+                            continue;
+                        }
+                        double risk = risk(nx, ny, t + 1);
+                        if (risk < 0) {
+                            continue;
+                        }
+                        int next = local(nx, ny);
+                        double total = here + (d == 0 ? WAIT_COST : STEP_COST) + risk;
+                        if (total < nextCost[next]) {
+                            nextCost[next] = total;
+                            nextFirst[next] = t == 0 ? (d == 0 ? WAIT : PatrolRoute.pack(nx, ny)) : first[cell];
+                        }
+                    }
+                }
+            }
+            double[] swapCost = cost;
+            cost = nextCost;
+            nextCost = swapCost;
+            int[] swapFirst = first;
+            first = nextFirst;
+            nextFirst = swapFirst;
+        }
+
+        for (int x = Math.max(0, robotX - horizon), xEnd = Math.min(size - 1, robotX + horizon); x <= xEnd; x++) {
+            int spread = horizon - Math.abs(x - robotX);
+            for (int y = Math.max(0, robotY - spread), yEnd = Math.min(size - 1, robotY + spread); y <= yEnd; y++) {
+                int cell = local(x, y);
+                if (cost[cell] == Double.POSITIVE_INFINITY) {
+                    continue;
+                }
+                double total = cost[cell] + costToGo(cell, x == goldX && y == goldY, hasCoins);
+                if (total < best) {
+                    best = total;
+                    bestMove = first[cell];
+                }
+            }
+        }
+        return bestMove;
+    }
+
+    private double costToGo(int cell, boolean isGold, boolean hasCoins) {
+        if (isGold) {
+            return 0;
+        }
+        double toGold = goldNear[cell] < 0 ? UNREACHABLE : GOAL_WEIGHT * goldNear[cell];
+        double toCoin = hasCoins && coinNear[cell] >= 0 ? COIN_WEIGHT * coinNear[cell] : 0;
+        return toGold + toCoin;
+    }
+
+    /**
+     * Gets a cell's index in the window around the robot.
+     */
+    private int local(int x, int y) {
+        return (x - boxX) * boxHeight + (y - boxY);
+    }
+
+    /**
+     * Gets the risk cost of standing on a cell at tick t, or -1 if the cell
+     * must not be entered. Bad guys are counted where they are now; by tick t
+     * they may have come t - 1 cells closer.
+     */
+    private double risk(int x, int y, int t) {
+        int reach = t - 1;
+        int near = countWithin(x, y, reach + 1);
+        if (t == 1 && near > 0) {
+            return -1;
+        }
+        int close = countWithin(x, y, reach + CAUTION_RANGE);
+        if (close == 0) {
+            return 0;
+        }
+        double safe = Math.pow(ESCAPE_ODDS, close - near) * Math.pow(NEAR_ESCAPE_ODDS, near);
+        return RISK_WEIGHT * (1 - safe) * Math.pow(RISK_DECAY, reach);
+    }
+
+    /**
+     * Builds a summed-area table of bad guy counts in rotated coordinates
+     * (u = x + y, v = x - y), where every Manhattan ball is a square. Only
+     * the square around the robot that any risk query can reach is kept.
+     */
+    private void countThreats(int robotX, int robotY, List<BadGuy> badGuys, BadGuySwarm swarm) {
+        Arrays.fill(threatCounts, 0);
+        threatU = robotX + robotY - threatReach;
+        threatV = robotX - robotY - threatReach;
+        for (BadGuy badGuy : badGuys) {
+            addThreat(badGuy.getX(), badGuy.getY());
+        }
+        for (int i = 0; swarm != null && i < swarm.size(); i++) {
+            addThreat(swarm.getX(i), swarm.getY(i));
+        }
+        int row = threatSide + 1;
+        for (int u = 1; u <= threatSide; u++) {
+            for (int v = 1; v <= threatSide; v++) {
+                threatCounts[u * row + v] += threatCounts[(u - 1) * row + v]
+                        + threatCounts[u * row + v - 1] - threatCounts[(u - 1) * row + v - 1];
+            }
+        }
+    }
+
+    private void addThreat(int x, int y) {
+        int u = x + y - threatU;
+        int v = x - y - threatV;
+        if (u >= 0 && u < threatSide && v >= 0 && v < threatSide) {
+            threatCounts[(u + 1) * (threatSide + 1) + v + 1]++;
+        }
+    }
+
+    private int countWithin(int x, int y, int radius) {
+        int row = threatSide + 1;
+        int u = x + y - threatU + 1;
+        int v = x - y - threatV + 1;
+        int u0 = Math.max(u - radius, 1) - 1;
+        int u1 = Math.min(u + radius, threatSide);
+        int v0 = Math.max(v - radius, 1) - 1;
+        int v1 = Math.min(v + radius, threatSide);
+        return threatCounts[u1 * row + v1] - threatCounts[u0 * row + v1]
+                - threatCounts[u1 * row + v0] + threatCounts[u0 * row + v0];
+    }
+
+    /**
+     * Rebuilds the whole-board distances to the gold and to the nearest coin
+     * when what they were built from has changed. The gold never moves, so
+     * its field is normally built once per game and the coins' once per coin
+     * collected.
+     */
+    private void updateFarDistances(World world, Gold gold, List<Coin> coins) {
+        int version = world.getObstacleVersion();
+        int cell = gold.getX() * size + gold.getY();
+        if (version != goldVersion || cell != goldCell) {
+            farDistances(world, goldFar, cell, null);
+            goldVersion = version;
+            goldCell = cell;
+        }
+        long key = coins.size();
+        for (Coin coin : coins) {
+            key = key * 31 + PatrolRoute.pack(coin.getX(), coin.getY());
+        }
+        if (!coins.isEmpty() && (version != coinVersion || key != coinKey)) {
+            farDistances(world, coinFar, -1, coins);
+            coinVersion = version;
+            coinKey = key;
+        }
+    }
+
+    /**
+     * Breadth-first distances over the obstacles from a target cell (or from
+     * every coin) to every cell on the board.
+     */
+    private void farDistances(World world, int[] distance, int target, List<Coin> coins) {
+        Arrays.fill(distance, -1);
+        int head = 0;
+        int tail = 0;
+        if (coins == null) {
+            distance[target] = 0;
+            queue[tail++] = target;
+        } else {
+            for (Coin coin : coins) {
+                int cell = coin.getX() * size + coin.getY();
+                if (distance[cell] != 0) {
+                    distance[cell] = 0;
+                    queue[tail++] = cell;
+                }
+            }
+        }
+        while (head < tail) {
+            int cell = queue[head++];
+            int x = cell / size;
+            int y = cell - x * size;
+            for (int d = 1; d < DX.length; d++) {
+                int nx = x + DX[d];
+                int ny = y + DY[d];
+                if (!world.isValidMove(nx, ny)) {
+                    continue;
+                }
+                int next = nx * size + ny;
+                if (distance[next] >= 0) {
+                    continue;
+                }
+                distance[next] = distance[cell] + 1;
+                queue[tail++] = next;
+            }
+        }
+    }
+
+    /**
+     * Breadth-first distances inside the window around the robot over cells
+     * it may still walk on. Targets in the window start at 0 and each cell
+     * on a side of the window that has more board beyond it starts at its
+     * whole-board distance, so paths may leave the window and come back
+     * from there.
+     */
+    private void nearDistances(World world, boolean[][] visited, int robotX, int robotY, int[] far, int[] near) {
+        int boxCells = boxWidth * boxHeight;
+        Arrays.fill(near, 0, boxCells, -1);
+        int lastX = boxX + boxWidth - 1;
+        int lastY = boxY + boxHeight - 1;
+        int seedCount = 0;
+        for (int x = boxX; x <= lastX; x++) {
+            for (int y = boxY; y <= lastY; y++) {
+                int distance = far[x * size + y];
+                if (distance < 0) {
+                    continue;
+                }
+                boolean open = (x == boxX && x > 0) || (x == lastX && x < size - 1)
+                        || (y == boxY && y > 0) || (y == lastY && y < size - 1);
+                boolean walkable = !visited[x][y] || (x == robotX && y == robotY);
+                if (distance == 0 || (open && walkable)) {
+                    seeds[seedCount++] = (long) distance << 32 | local(x, y);
+                }
+            }
+        }
+        Arrays.sort(seeds, 0, seedCount);
+
+        // Seeds and queued cells are taken in order of distance, seeds first on ties
+        int head = 0;
+        int tail = 0;
+        int seed = 0;
+        while (seed < seedCount || head < tail) {
+            int cell;
+            int distance;
+            if (seed < seedCount && (head == tail || (int) (seeds[seed] >>> 32) <= near[nearQueue[head]])) {
+                distance = (int) (seeds[seed] >>> 32);
+                cell = (int) seeds[seed++];
+                if (near[cell] >= 0) {
+                    continue;
+                }
+                near[cell] = distance;
+            } else {
+                cell = nearQueue[head++];
+                distance = near[cell];
+            }
+            int x = boxX + cell / boxHeight;
+            int y = boxY + cell % boxHeight;
+            for (int d = 1; d < DX.length; d++) {
+                int nx = x + DX[d];
+                int ny = y + DY[d];
+                if (nx < boxX || nx > lastX || ny < boxY || ny > lastY || !world.isValidMove(nx, ny)) {
+                    continue;
+                }
+                int next = local(nx, ny);
+                if (near[next] >= 0 || (visited[nx][ny] && (nx != robotX || ny != robotY))) {
+                    continue;
+                }
+                near[next] = distance + 1;
+                nearQueue[tail++] = next;
+            }
+        }
+    }
+
+    //Getters
+    public int getHorizon() {
+        return horizon;
+    }
+}
@@ -6,6 +6,7 @@ package goforthegold.model;
 public class Score implements Comparable<Score> {
     private String name;
     private int score;
+    private Difficulty difficulty;
 
     /**
      * Constructs a new Score.
@@ -13,8 +14,19 @@ public class Score implements Comparable<Score> {
      * @param score The score value
      */
     public Score(String name, int score) {
+        this(name, score, null);
+    }
+
+    /**
+     * Constructs a new Score for a game played at a known difficulty.
+     * @param name The name of the player
+     * @param score The score value
+     * @param difficulty The difficulty the game was played at, or null if unknown
+     */
+    public Score(String name, int score, Difficulty difficulty) {
         this.name = name;
         this.score = score;
+        this.difficulty = difficulty;
     }
 
     public String getName() {
@@ -25,6 +37,10 @@ public class Score implements Comparable<Score> {
         return score;
     }
 
+    public Difficulty getDifficulty() {
+        return difficulty;
+    }
+
     @Override
     public int compareTo(Score other) {
         return Integer.compare(this.score, other.score);
@@ -0,0 +1,418 @@
+package goforthegold.model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Reads score files of any size, one "name,score" or "name,score,difficulty"
+ * line each (':' may be used instead of ','). Lines starting with '#' are
+ * comments; a bad line is reported and skipped.
+ *
+ * The file is split into byte ranges that start and end on line breaks.
+ * Each range is memory-mapped and parsed on its own thread straight from
+ * the bytes: the score and difficulty are decoded in place and the only
+ * object made per line is the player's name, shared with the previous line
+ * when the same player repeats. Each range is handed over as soon as it and
+ * every range before it are parsed, so the scores arrive exactly as a
+ * line-by-line read would give them, and only the few ranges being parsed
+ * ahead of the one handed over are held in memory. For bulk loading, each
+ * range can also be ranked by score on the thread that parsed it.
+ */
+public final class ScoreImporter {
+    /** Files smaller than this are parsed on the calling thread. */
+    static final long MIN_CHUNK_BYTES = 1 << 20;
+    /** Ranges aim to be at most this long so little is held in memory at once. */
+    static final long MAX_CHUNK_BYTES = 1 << 24;
+    private static final Difficulty[] DIFFICULTIES = Difficulty.values();
+
+    private ScoreImporter() {
+    }
+
+    /**
+     * Reads a score file using every core.
+     * @param path The file to read
+     * @param scores Receives each score, in file order
+     * @param comments Receives each comment line without the '#', in file
+     *                 order, before the scores that follow it
+     * @return The number of scores read
+     * @throws IOException If the file cannot be read
+     */
+    public static long read(Path path, Consumer<Score> scores, Consumer<String> comments) throws IOException {
+        return read(path, Runtime.getRuntime().availableProcessors(), scores, comments);
+    }
+
+    /**
+     * Reads a score file. The consumers are called on the calling thread
+     * while later ranges are still being parsed.
+     * @param path The file to read
+     * @param threads The number of threads to parse with
+     * @param scores Receives each score, in file order
+     * @param comments Receives each comment line without the '#', in file
+     *                 order, before the scores that follow it
+     * @return The number of scores read
+     * @throws IOException If the file cannot be read
+     */
+    public static long read(Path path, int threads, Consumer<Score> scores, Consumer<String> comments)
+            throws IOException {
+        long[] count = {0};
+        readChunks(path, threads, false, chunk -> count[0] += chunk.handOver(scores, comments));
+        return count[0];
+    }
+
+    /**
+     * Reads a score file and hands over each range's scores together with
+     * their order by score, worked out on the thread that parsed the range.
+     * Ranges are handed over in file order on the calling thread.
+     * @param path The file to read
+     * @param threads The number of threads to parse and rank with
+     * @param ranges Receives each range's scores in file order and the
+     *               positions in that list best score first, equal scores in
+     *               file order
+     * @param comments Receives each comment line without the '#', in file
+     *                 order, before the range it is in
+     * @return The number of scores read
+     * @throws IOException If the file cannot be read
+     */
+    public static long readRanked(Path path, int threads, BiConsumer<List<Score>, int[]> ranges,
+                                  Consumer<String> comments) throws IOException {
+        long[] count = {0};
+        readChunks(path, threads, true, chunk -> {
+            chunk.comments.forEach(comments);
+            ranges.accept(chunk.scores, chunk.ranking);
+            count[0] += chunk.scores.size();
+        });
+        return count[0];
+    }
+
+    private static void readChunks(Path path, int threads, boolean rank, Consumer<Chunk> handOver)
+            throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long[] bounds = split(channel, Math.max(1, threads));
+            int chunks = bounds.length - 1;
+            if (chunks == 1) {
+                handOver.accept(parse(channel, bounds[0], bounds[1], rank));
+                return;
+            }
+            ForkJoinPool pool = new ForkJoinPool(Math.max(1, threads));
+            try {
+                // Keeps every thread busy plus one range ready to hand over
+                int ahead = Math.max(1, threads) + 1;
+                ArrayDeque<Future<Chunk>> parsing = new ArrayDeque<>();
+                int next = 0;
+                while (next < chunks || !parsing.isEmpty()) {
+                    while (next < chunks && parsing.size() < ahead) {
+                        long start = bounds[next];
+                        long end = bounds[next + 1];
+                        parsing.add(pool.submit(() -> parse(channel, start, end, rank)));
+                        next++;
+                    }
+                    handOver.accept(parsing.remove().get());
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while reading " + path, e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException cause) {
+                    throw cause;
+                }
+                throw new IOException("Could not read " + path, e.getCause());
+            } finally {
+                // Drops ranges still queued if reading stopped early
+                pool.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * Splits the file into ranges, moving each boundary forward to just
+     * after the next line break.
+     * @return The range boundaries, from 0 to the file size
+     */
+    private static long[] split(FileChannel channel, int threads) throws IOException {
+        long size = channel.size();
+        // A few ranges per thread keep the threads busy when lines vary
+        long target = Math.max(MIN_CHUNK_BYTES, Math.min(MAX_CHUNK_BYTES, size / (threads * 4L) + 1));
+        List<Long> bounds = new ArrayList<>();
+        bounds.add(0L);
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        long position = target;
+        while (position < size) {
+            long lineEnd = -1;
+            long at = position;
+            while (lineEnd < 0 && at < size) {
+                probe.clear();
+                int read = channel.read(probe, at);
+                if (read <= 0) {
+                    break;
+                }
+                for (int i = 0; i < read; i++) {
+                    if (probe.get(i) == '\n') {
+                        lineEnd = at + i + 1;
+                        break;
+                    }
+                }
+                at += read;
+            }
+            if (lineEnd < 0 || lineEnd >= size) {
+                break;
+            }
+            bounds.add(lineEnd);
+            position = lineEnd + target;
+        }
+        bounds.add(size);
+        return bounds.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    /**
+     * The scores and comments of one range, with where each comment falls
+     * among the scores and, if asked for, the scores' order best first.
+     */
+    private static final class Chunk {
+        private final List<Score> scores;
+        private final List<String> comments;
+        private final List<Integer> commentPositions;
+        private int[] ranking;
+
+        private Chunk(List<Score> scores, List<String> comments, List<Integer> commentPositions) {
+            this.scores = scores;
+            this.comments = comments;
+            this.commentPositions = commentPositions;
+        }
+
+        /**
+         * Orders the scores best first, equal scores in file order, by
+         * sorting one long per score: the score flipped so bigger sorts
+         * first, above the score's position.
+         */
+        private void rank() {
+            long[] keys = new long[scores.size()];
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = ((long) Integer.MAX_VALUE - scores.get(i).getScore()) << 31 | i;
+            }
+            Arrays.sort(keys);
+            ranking = new int[keys.length];
+            for (int i = 0; i < keys.length; i++) {
+                ranking[i] = (int) (keys[i] & Integer.MAX_VALUE);
+            }
+        }
+
+        /**
+         * Hands the range's lines over in file order.
+         * @return The number of scores handed over
+         */
+        private long handOver(Consumer<Score> scoreConsumer, Consumer<String> commentConsumer) {
+            int comment = 0;
+            for (int i = 0; i < scores.size(); i++) {
+                while (comment < comments.size() && commentPositions.get(comment) == i) {
+                    commentConsumer.accept(comments.get(comment++));
+                }
+                scoreConsumer.accept(scores.get(i));
+            }
+            while (comment < comments.size()) {
+                commentConsumer.accept(comments.get(comment++));
+            }
+            return scores.size();
+        }
+    }
+
+    private static Chunk parse(FileChannel channel, long start, long end, boolean rank) throws IOException {
+        Chunk chunk = parse(channel, start, end);
+        if (rank) {
+            chunk.rank();
+        }
+        return chunk;
+    }
+
+    private static Chunk parse(FileChannel channel, long start, long end) throws IOException {
+        List<Score> scores = new ArrayList<>();
+        List<String> comments = new ArrayList<>();
+        List<Integer> commentPositions = new ArrayList<>();
+        if (end <= start) {
+            return new Chunk(scores, comments, commentPositions);
+        }
+        MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        int limit = data.limit();
+        byte[] previousName = null;
+        String previous = null;
+        int lineStart = 0;
+        while (lineStart < limit) {
+            // One pass finds the line end and the first two of each separator
+            int lineEnd = lineStart;
+            int commas = 0;
+            int colons = 0;
+            int comma = -1;
+            int secondComma = -1;
+            int colon = -1;
+            int secondColon = -1;
+            while (lineEnd < limit) {
+                byte b = data.get(lineEnd);
+                if (b == '\n') {
+                    break;
+                } else if (b == ',') {
+                    if (commas++ == 0) {
+                        comma = lineEnd;
+                    } else if (commas == 2) {
+                        secondComma = lineEnd;
+                    }
+                } else if (b == ':') {
+                    if (colons++ == 0) {
+                        colon = lineEnd;
+                    } else if (colons == 2) {
+                        secondColon = lineEnd;
+                    }
+                }
+                lineEnd++;
+            }
+            if (lineEnd > lineStart && data.get(lineStart) == '#') {
+                comments.add(text(data, lineStart + 1, lineEnd).trim());
+                commentPositions.add(scores.size());
+            } else {
+                // Lines without a comma are split on ':'
+                boolean useCommas = commas > 0;
+                int fields = useCommas ? commas : colons;
+                int split = fields == 0 || fields > 2 ? -1 : useCommas ? comma : colon;
+                int second = useCommas ? secondComma : secondColon;
+                Score score = parseLine(data, lineStart, lineEnd, split, second, previousName, previous);
+                if (score != null) {
+                    if (score.getName() != previous) {
+                        previous = score.getName();
+                        previousName = previous.getBytes(StandardCharsets.UTF_8);
+                    }
+                    scores.add(score);
+                }
+            }
+            lineStart = lineEnd + 1;
+        }
+        return new Chunk(scores, comments, commentPositions);
+    }
+
+    /**
+     * Parses the line in [from, to), with the same rules as reading it as
+     * text and trimming each field.
+     * @param split The first separator, or -1 if the line has none or too many
+     * @param second The second separator, or -1 if there is none
+     * @return The score, or null if the line is not valid
+     */
+    private static Score parseLine(ByteBuffer data, int from, int to, int split, int second,
+                                   byte[] previousName, String previous) {
+        if (split < 0) {
+            System.err.println("Invalid line format: " + text(data, from, to));
+            return null;
+        }
+        int nameFrom = skipSpaces(data, from, split);
+        int nameTo = trimSpaces(data, nameFrom, split);
+        int scoreEnd = second < 0 ? to : second;
+        long value = parseInt(data, skipSpaces(data, split + 1, scoreEnd), trimSpaces(data, split + 1, scoreEnd));
+        Difficulty difficulty = null;
+        if (second >= 0) {
+            difficulty = parseDifficulty(data, skipSpaces(data, second + 1, to), trimSpaces(data, second + 1, to));
+        }
+        if (value == Long.MIN_VALUE || (second >= 0 && difficulty == null)) {
+            System.err.println("Invalid score format: " + text(data, from, to));
+            return null;
+        }
+        String name = previous != null && sameBytes(data, nameFrom, nameTo, previousName) ? previous : text(data, nameFrom, nameTo);
+        return new Score(name, (int) value, difficulty);
+    }
+
+    /**
+     * Skips the characters String.trim removes from the front.
+     */
+    private static int skipSpaces(ByteBuffer data, int from, int to) {
+        while (from < to && (data.get(from) & 0xFF) <= ' ') {
+            from++;
+        }
+        return from;
+    }
+
+    /**
+     * Drops the characters String.trim removes from the back.
+     */
+    private static int trimSpaces(ByteBuffer data, int from, int to) {
+        while (to > from && (data.get(to - 1) & 0xFF) <= ' ') {
+            to--;
+        }
+        return to;
+    }
+
+    /**
+     * Parses a decimal int the way Integer.parseInt does.
+     * @return The value, or Long.MIN_VALUE if it is not a valid int
+     */
+    private static long parseInt(ByteBuffer data, int from, int to) {
+        boolean negative = false;
+        if (from < to && (data.get(from) == '-' || data.get(from) == '+')) {
+            negative = data.get(from) == '-';
+            from++;
+        }
+        if (from >= to) {
+            return Long.MIN_VALUE;
+        }
+        long value = 0;
+        for (int i = from; i < to; i++) {
+            int digit = data.get(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return Long.MIN_VALUE;
+            }
+            value = value * 10 + digit;
+            if (value > (long) Integer.MAX_VALUE + 1) {
+                return Long.MIN_VALUE;
+            }
+        }
+        value = negative ? -value : value;
+        return value < Integer.MIN_VALUE || value > Integer.MAX_VALUE ? Long.MIN_VALUE : value;
+    }
+
+    /**
+     * Matches a difficulty name in any case.
+     * @return The difficulty, or null if none matches
+     */
+    private static Difficulty parseDifficulty(ByteBuffer data, int from, int to) {
+        for (Difficulty difficulty : DIFFICULTIES) {
+            String name = difficulty.name();
+            if (name.length() != to - from) {
+                continue;
+            }
+            int i = 0;
+            while (i < name.length() && Character.toUpperCase((char) data.get(from + i)) == name.charAt(i)) {
+                i++;
+            }
+            if (i == name.length()) {
+                return difficulty;
+            }
+        }
+        return null;
+    }
+
+    private static boolean sameBytes(ByteBuffer data, int from, int to, byte[] bytes) {
+        if (to - from != bytes.length) {
+            return false;
+        }
+        for (int i = 0; i < bytes.length; i++) {
+            if (data.get(from + i) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String text(ByteBuffer data, int from, int to) {
+        byte[] bytes = new byte[to - from];
+        data.get(from, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,109 @@
+package goforthegold.model;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * An append-only file of scores, one "name,score" or
+ * "name,score,difficulty" line each. Lines are buffered and reach the disk
+ * in batches: once syncEvery scores are waiting the buffer is written out
+ * and the file is forced to the device. {@link ScoreImporter} reads it back.
+ */
+class ScoreJournal implements Closeable {
+    private final Path path;
+    private final int generation;
+    private final int syncEvery;
+    private FileChannel channel;
+    private Writer writer;
+    private int pending;
+    private int entries;
+
+    /**
+     * Constructs a new ScoreJournal. The file is created on the first append.
+     * @param path The journal file
+     * @param generation The journal's generation
+     * @param syncEvery How many scores to buffer before forcing them to disk
+     */
+    ScoreJournal(Path path, int generation, int syncEvery) {
+        this.path = path;
+        this.generation = generation;
+        this.syncEvery = Math.max(1, syncEvery);
+    }
+
+    /**
+     * Appends a score to the buffer. Callers that append a batch at once
+     * force it to disk afterwards with {@link #syncIfDue()}.
+     * @param score The score to append
+     * @throws IOException If the journal cannot be written
+     */
+    void append(Score score) throws IOException {
+        if (writer == null) {
+            channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            writer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8));
+        }
+        writer.write(score.getName());
+        writer.write(',');
+        writer.write(Integer.toString(score.getScore()));
+        if (score.getDifficulty() != null) {
+            writer.write(',');
+            writer.write(score.getDifficulty().name());
+        }
+        writer.write('\n');
+        entries++;
+        pending++;
+    }
+
+    /**
+     * Forces buffered scores to disk once at least syncEvery are waiting.
+     * @return Whether the journal was forced
+     * @throws IOException If the journal cannot be written
+     */
+    boolean syncIfDue() throws IOException {
+        if (pending >= syncEvery) {
+            sync();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Writes out buffered scores and forces them to disk.
+     * @throws IOException If the journal cannot be written
+     */
+    void sync() throws IOException {
+        if (writer != null && pending > 0) {
+            writer.flush();
+            channel.force(false);
+            pending = 0;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (writer != null) {
+            sync();
+            writer.close();
+            writer = null;
+        }
+    }
+
+    //Getters
+    Path getPath() {
+        return path;
+    }
+
+    int getGeneration() {
+        return generation;
+    }
+
+    int getEntries() {
+        return entries;
+    }
+}
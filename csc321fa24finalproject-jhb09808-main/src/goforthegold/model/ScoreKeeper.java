@@ -1,93 +1,725 @@
 package goforthegold.model;
 
 import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
 /**
  * Manages and persists high scores for the game.
+ *
+ * New scores are appended to a journal instead of rewriting the score
+ * file. Every few dozen scores the journal is compacted in the background:
+ * every score so far is written to the score file (the snapshot) and the
+ * journals it covers are deleted. Compaction waits until the journal is at
+ * least half the size of the snapshot, so rewriting it stays cheap per
+ * score however many there are. Journals are numbered by generation
+ * and the snapshot records the last generation it includes, so loading
+ * after a crash at any point neither loses nor repeats a score.
+ *
+ * In memory every score is kept in {@link Leaderboard}s, overall, per
+ * difficulty and per player, so ranks and percentiles are O(log n). Every
+ * score is also copied to a {@link ScoreStore} beside the score file
+ * ("top_scores.bin"), which other programs can open to look up a player's
+ * history while games are running. The store is forced to disk whenever
+ * the journal is, but the journal stays the record of truth: on loading,
+ * the store keeps only the records that match it and is rebuilt from there.
+ * Snapshots are written in the order the scores were added for this.
+ *
+ * Submitting a score never takes a lock: it is put on a lock-free queue
+ * and a single writer thread merges queued scores into the leaderboards
+ * and the journal in batches, forcing each batch to disk once. Queries
+ * merge whatever is queued first, so a thread always sees its own scores.
  */
-public class ScoreKeeper {
-    private PriorityQueue<Score> topScores;
+public class ScoreKeeper implements Closeable {
+    private final Leaderboard allScores;
+    private final Map<Difficulty, Leaderboard> difficultyScores;
+    private final HashTable<String, Leaderboard> playerScores;
     private static final int MAX_SCORES = 10;
     private static final String SCORE_FILE = "top_scores.txt";
+    private static final String GENERATION = "generation ";
+    private static final String JOURNAL_SUFFIX = ".journal";
+    public static final int DEFAULT_SYNC_EVERY = 1;
+    public static final int DEFAULT_COMPACT_EVERY = 64;
+
+    private static ScoreKeeper shared;
+
+    private final Path snapshotFile;
+    private final int syncEvery;
+    private final int compactEvery;
+    private final ExecutorService compactor;
+    private final ExecutorService writer;
+    private final ConcurrentLinkedQueue<Score> submitted;
+    private final AtomicBoolean mergeScheduled;
+    private ScoreJournal journal;
+    private Future<?> compaction;
+    private ScoreStore store;
 
     /**
-     * Constructs a new ScoreKeeper and loads existing scores.
+     * Constructs a new ScoreKeeper on the default score file and loads
+     * existing scores. Games share one through {@link #getShared()}.
      */
     public ScoreKeeper() {
-        topScores = new PriorityQueue<>(MAX_SCORES, Collections.reverseOrder());
-        loadScores();
+        this(Path.of(SCORE_FILE), DEFAULT_SYNC_EVERY, DEFAULT_COMPACT_EVERY);
+    }
+
+    /**
+     * Constructs a new ScoreKeeper and loads existing scores.
+     * @param snapshotFile The score file; journals are kept next to it
+     * @param syncEvery How many scores to buffer before forcing them to disk
+     * @param compactEvery How many journaled scores trigger a compaction
+     */
+    public ScoreKeeper(Path snapshotFile, int syncEvery, int compactEvery) {
+        this.snapshotFile = snapshotFile.toAbsolutePath();
+        this.syncEvery = syncEvery;
+        this.compactEvery = Math.max(1, compactEvery);
+        allScores = new Leaderboard();
+        difficultyScores = new EnumMap<>(Difficulty.class);
+        playerScores = new HashTable<>();
+        compactor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "score-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        writer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "score-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        submitted = new ConcurrentLinkedQueue<>();
+        mergeScheduled = new AtomicBoolean();
+        List<Score> loaded = new ArrayList<>();
+        int generation = loadScores(loaded) + 1;
+        store = openStore(loaded);
+        journal = new ScoreJournal(journalPath(generation), generation, syncEvery);
+    }
+
+    /**
+     * Gets the score keeper shared by every game, loading it on first use.
+     * Its journal is flushed when the program exits.
+     * @return The shared score keeper
+     */
+    public static synchronized ScoreKeeper getShared() {
+        if (shared == null) {
+            shared = new ScoreKeeper();
+            ScoreKeeper keeper = shared;
+            Runtime.getRuntime().addShutdownHook(new Thread(keeper::close, "score-flush"));
+        }
+        return shared;
     }
 
     /**
-     * Adds a new score to the high scores list.
+     * Adds a new score to the high scores list. Safe to call from any
+     * number of threads at once; the score is saved in the background.
      * @param score The score to add
      */
     public void addScore(Score score) {
-        topScores.offer(score);
-        if (topScores.size() > MAX_SCORES) {
-            topScores.poll(); 
+        submitted.offer(score);
+        scheduleMerge();
+    }
+
+    /**
+     * Adds many scores, saved in the background like {@link #addScore}.
+     * @param scores The scores to add
+     */
+    public void addScores(Collection<Score> scores) {
+        submitted.addAll(scores);
+        scheduleMerge();
+    }
+
+    /**
+     * Wakes the writer unless it is already due to run. The writer clears
+     * the flag before it drains the queue, so a score queued after the
+     * drain started always schedules another run.
+     */
+    private void scheduleMerge() {
+        if (mergeScheduled.compareAndSet(false, true)) {
+            try {
+                writer.execute(this::mergeAndSave);
+            } catch (RejectedExecutionException e) {
+                // Closed: save on the caller's thread instead
+                mergeScheduled.set(false);
+                flush();
+            }
         }
-        saveScores();
     }
 
-    private void loadScores() {
-        File file = new File(SCORE_FILE);
-        if (!file.exists()) {
+    private void mergeAndSave() {
+        mergeScheduled.set(false);
+        synchronized (this) {
+            merge();
             try {
-                file.createNewFile();
-                System.out.println("Score file created: " + SCORE_FILE);
+                if (journal.syncIfDue()) {
+                    forceStore();
+                }
             } catch (IOException e) {
-                System.err.println("Error creating score file: " + e.getMessage());
-            }
-            return;
-        }
-
-        try (BufferedReader reader = new BufferedReader(new FileReader(SCORE_FILE))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts;
-                if (line.contains(",")) {
-                    parts = line.split(",");
-                } else if (line.contains(":")) {
-                    parts = line.split(":");
-                } else {
-                    System.err.println("Invalid line format: " + line);
-                    continue;
+                System.err.println("Error saving scores: " + e.getMessage());
+            }
+            compactIfDue();
+        }
+    }
+
+    /**
+     * Moves every queued score into the leaderboards and the journal.
+     * Must be called holding the lock.
+     */
+    private void merge() {
+        Score score;
+        while ((score = submitted.poll()) != null) {
+            save(score);
+        }
+    }
+
+    /**
+     * Adds a score to the leaderboards, the journal and the store.
+     * Must be called holding the lock.
+     */
+    private void save(Score score) {
+        keep(score);
+        try {
+            journal.append(score);
+        } catch (IOException e) {
+            System.err.println("Error saving scores: " + e.getMessage());
+        }
+        if (store != null) {
+            try {
+                store.append(score);
+            } catch (IOException e) {
+                System.err.println("Error saving scores: " + e.getMessage());
+            }
+        }
+    }
+
+    private void keep(Score score) {
+        allScores.add(score);
+        if (score.getDifficulty() != null) {
+            difficultyScores.computeIfAbsent(score.getDifficulty(), difficulty -> new Leaderboard()).add(score);
+        }
+        Leaderboard player = playerScores.get(score.getName());
+        if (player == null) {
+            player = new Leaderboard();
+            playerScores.put(score.getName(), player);
+        }
+        player.add(score);
+    }
+
+    /**
+     * Imports a score file, such as a historical export, in one batch.
+     *
+     * The file is parsed, and each part of it ranked by score, in parallel
+     * without holding the lock, so queries carry on meanwhile. The ranked
+     * parts are merged, every leaderboard is rebuilt from its share in one
+     * pass, and the scores are saved by writing a new snapshot instead of
+     * journaling them one by one. Returns once the snapshot is on disk.
+     * @param file The file to import, in the score file format
+     * @param threads The number of threads to parse with
+     * @return The number of scores imported
+     * @throws IOException If the file cannot be read
+     */
+    public long importScores(Path file, int threads) throws IOException {
+        List<Score> imported = new ArrayList<>();
+        List<int[]> runs = new ArrayList<>();
+        long count = ScoreImporter.readRanked(file, threads, (scores, ranking) -> {
+            int offset = imported.size();
+            imported.addAll(scores);
+            for (int i = 0; i < ranking.length; i++) {
+                ranking[i] += offset;
+            }
+            runs.add(ranking);
+        }, comment -> { });
+        int[] ranking = mergeRuns(imported, runs);
+
+        Future<?> running;
+        synchronized (this) {
+            merge();
+            keepAll(imported, ranking);
+            if (store != null) {
+                try {
+                    for (Score score : imported) {
+                        store.append(score);
+                    }
+                } catch (IOException e) {
+                    System.err.println("Error saving scores: " + e.getMessage());
                 }
+            }
+            forceStore();
+            running = startCompaction();
+        }
+        awaitCompaction(running);
+        return count;
+    }
 
-                if (parts.length == 2) { 
-                    try {
-                        String name = parts[0].trim();
-                        int score = Integer.parseInt(parts[1].trim());
-                        topScores.offer(new Score(name, score));
-                    } catch (NumberFormatException e) {
-                        System.err.println("Invalid score format: " + line);
+    /**
+     * Merges ranked runs of consecutive scores into one ranking. Runs are
+     * merged in neighboring pairs, so equal scores stay in file order and
+     * each score is copied once per level.
+     */
+    private static int[] mergeRuns(List<Score> scores, List<int[]> runs) {
+        int[] values = new int[scores.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = scores.get(i).getScore();
+        }
+        List<int[]> merging = runs;
+        while (merging.size() > 1) {
+            List<int[]> merged = new ArrayList<>();
+            for (int i = 0; i + 1 < merging.size(); i += 2) {
+                int[] earlier = merging.get(i);
+                int[] later = merging.get(i + 1);
+                int[] both = new int[earlier.length + later.length];
+                int a = 0;
+                int b = 0;
+                for (int k = 0; k < both.length; k++) {
+                    if (b == later.length || (a < earlier.length && values[earlier[a]] >= values[later[b]])) {
+                        both[k] = earlier[a++];
+                    } else {
+                        both[k] = later[b++];
                     }
-                } else {
-                    System.err.println("Invalid line format: " + line);
                 }
+                merged.add(both);
+            }
+            if (merging.size() % 2 == 1) {
+                merged.add(merging.get(merging.size() - 1));
             }
+            merging = merged;
+        }
+        return merging.isEmpty() ? new int[0] : merging.get(0);
+    }
+
+    /**
+     * Adds a ranked batch to the leaderboards. A board's share of the batch
+     * is picked out of the file order and the ranking, which keeps it
+     * ranked, and the board is rebuilt from it in bulk.
+     * Must be called holding the lock.
+     */
+    private void keepAll(List<Score> added, int[] ranking) {
+        allScores.addAll(added, ranking);
+        int n = added.size();
+        Share[] difficultyShare = new Share[n];
+        Share[] playerShare = new Share[n];
+        int[] difficultyAt = new int[n];
+        int[] playerAt = new int[n];
+        Map<Difficulty, Share> difficulties = new EnumMap<>(Difficulty.class);
+        HashTable<String, Share> players = new HashTable<>();
+        List<Share> shares = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            Score score = added.get(i);
+            if (score.getDifficulty() != null) {
+                Share share = difficulties.get(score.getDifficulty());
+                if (share == null) {
+                    share = new Share(difficultyScores.computeIfAbsent(score.getDifficulty(), difficulty -> new Leaderboard()));
+                    difficulties.put(score.getDifficulty(), share);
+                    shares.add(share);
+                }
+                difficultyAt[i] = share.add(score);
+                difficultyShare[i] = share;
+            }
+            Share share = players.get(score.getName());
+            if (share == null) {
+                Leaderboard player = playerScores.get(score.getName());
+                if (player == null) {
+                    player = new Leaderboard();
+                    playerScores.put(score.getName(), player);
+                }
+                share = new Share(player);
+                players.put(score.getName(), share);
+                shares.add(share);
+            }
+            playerAt[i] = share.add(score);
+            playerShare[i] = share;
+        }
+        for (Share share : shares) {
+            share.ranking = new int[share.scores.size()];
+        }
+        for (int i : ranking) {
+            if (difficultyShare[i] != null) {
+                difficultyShare[i].rank(difficultyAt[i]);
+            }
+            playerShare[i].rank(playerAt[i]);
+        }
+        for (Share share : shares) {
+            share.board.addAll(share.scores, share.ranking);
+        }
+    }
+
+    /**
+     * One leaderboard's share of an imported batch.
+     */
+    private static final class Share {
+        private final Leaderboard board;
+        private final List<Score> scores;
+        private int[] ranking;
+        private int ranked;
+
+        private Share(Leaderboard board) {
+            this.board = board;
+            this.scores = new ArrayList<>();
+        }
+
+        private int add(Score score) {
+            scores.add(score);
+            return scores.size() - 1;
+        }
+
+        private void rank(int position) {
+            ranking[ranked++] = position;
+        }
+    }
+
+    /**
+     * Saves any queued scores and forces them to disk.
+     */
+    public synchronized void flush() {
+        merge();
+        try {
+            journal.sync();
+            forceStore();
         } catch (IOException e) {
-            System.err.println("Error loading scores: " + e.getMessage());
+            System.err.println("Error saving scores: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Forces the store's new records to disk alongside the journal.
+     * Must be called holding the lock.
+     */
+    private void forceStore() throws IOException {
+        if (store != null) {
+            store.force();
         }
     }
 
-    private void saveScores() {
-        try (PrintWriter writer = new PrintWriter(new FileWriter(SCORE_FILE))) {
-            for (Score score : topScores) {
-                writer.println(score.getName() + "," + score.getScore());
+    /**
+     * Compacts the journal into the score file and waits for it to finish.
+     */
+    public void compact() {
+        Future<?> running;
+        synchronized (this) {
+            merge();
+            running = startCompaction();
+        }
+        awaitCompaction(running);
+    }
+
+    private void compactIfDue() {
+        int due = Math.max(compactEvery, allScores.size() / 2);
+        if (journal.getEntries() >= due && (compaction == null || compaction.isDone())) {
+            compaction = startCompaction();
+        }
+    }
+
+    /**
+     * Closes the current journal, starts the next generation and hands the
+     * snapshot of the scores so far to the compactor thread.
+     */
+    private Future<?> startCompaction() {
+        ScoreJournal closed = journal;
+        try {
+            closed.close();
+        } catch (IOException e) {
+            System.err.println("Error saving scores: " + e.getMessage());
+        }
+        journal = new ScoreJournal(journalPath(closed.getGeneration() + 1), closed.getGeneration() + 1, syncEvery);
+        // In the order added, so the store can be matched against it on loading
+        List<Score> snapshot = allScores.inOrderAdded();
+        int generation = closed.getGeneration();
+        compaction = compactor.submit(() -> writeSnapshot(snapshot, generation));
+        return compaction;
+    }
+
+    /**
+     * Writes the snapshot beside the score file, forces it to disk and moves
+     * it into place in one step, then deletes the journals it includes.
+     */
+    private void writeSnapshot(List<Score> scores, int generation) {
+        Path temp = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+                 BufferedWriter writer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8))) {
+                writer.write("# " + GENERATION + generation + "\n");
+                for (Score score : scores) {
+                    writer.write(score.getName() + "," + score.getScore());
+                    if (score.getDifficulty() != null) {
+                        writer.write("," + score.getDifficulty().name());
+                    }
+                    writer.write("\n");
+                }
+                writer.flush();
+                channel.force(false);
             }
+            Files.move(temp, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            deleteJournals(generation);
         } catch (IOException e) {
             System.err.println("Error saving scores: " + e.getMessage());
         }
     }
 
     /**
-     * Retrieves the list of top scores.
+     * Loads the snapshot, then replays the journals newer than it in order
+     * and deletes those it already includes.
+     * @param loaded Receives every score loaded, in the order read
+     * @return The newest generation seen
+     */
+    private int loadScores(List<Score> loaded) {
+        Consumer<Score> load = score -> {
+            keep(score);
+            loaded.add(score);
+        };
+        int[] snapshotGeneration = {0};
+        if (Files.exists(snapshotFile)) {
+            try {
+                ScoreImporter.read(snapshotFile, load, comment -> {
+                    if (comment.startsWith(GENERATION)) {
+                        snapshotGeneration[0] = Integer.parseInt(comment.substring(GENERATION.length()).trim());
+                    }
+                });
+            } catch (IOException | NumberFormatException e) {
+                System.err.println("Error loading scores: " + e.getMessage());
+            }
+        }
+        int newest = snapshotGeneration[0];
+        for (int generation : journalGenerations()) {
+            if (generation > snapshotGeneration[0]) {
+                try {
+                    ScoreImporter.read(journalPath(generation), load, comment -> { });
+                } catch (IOException e) {
+                    System.err.println("Error loading scores: " + e.getMessage());
+                }
+            }
+            newest = Math.max(newest, generation);
+        }
+        deleteJournals(snapshotGeneration[0]);
+        return newest;
+    }
+
+    /**
+     * Opens the score store and brings it in line with the loaded scores.
+     * The store can be ahead of the journal after a crash (it is written
+     * to memory, the journal is buffered), behind it after a power loss,
+     * or out of step with it if it was written by an older version. The
+     * records that match the loaded scores are kept and the rest rebuilt.
+     * @param loaded The scores loaded, in the order read
+     * @return The store, or null if it cannot be opened
+     */
+    private ScoreStore openStore(List<Score> loaded) {
+        String name = snapshotFile.getFileName().toString();
+        int extension = name.lastIndexOf('.');
+        Path path = snapshotFile.resolveSibling((extension > 0 ? name.substring(0, extension) : name) + ".bin");
+        try {
+            ScoreStore opened = new ScoreStore(path, false);
+            int matching = 0;
+            while (matching < Math.min(opened.size(), loaded.size()) && sameRecord(opened.get(matching), loaded.get(matching))) {
+                matching++;
+            }
+            opened.truncate(matching);
+            for (int i = matching; i < loaded.size(); i++) {
+                opened.append(loaded.get(i));
+            }
+            return opened;
+        } catch (IOException e) {
+            System.err.println("Error loading score store: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Checks a stored record against a loaded score, allowing for the
+     * store shortening long names.
+     */
+    private static boolean sameRecord(Score stored, Score loaded) {
+        return stored.getScore() == loaded.getScore() && stored.getDifficulty() == loaded.getDifficulty()
+                && stored.getName().equals(ScoreStore.storedName(loaded.getName()));
+    }
+
+    private Path journalPath(int generation) {
+        return snapshotFile.resolveSibling(snapshotFile.getFileName() + "." + generation + JOURNAL_SUFFIX);
+    }
+
+    /**
+     * Lists the generations of the journals on disk, oldest first.
+     */
+    private int[] journalGenerations() {
+        String prefix = snapshotFile.getFileName() + ".";
+        List<Integer> generations = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(snapshotFile.getParent(), prefix + "*" + JOURNAL_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                try {
+                    generations.add(Integer.parseInt(name.substring(prefix.length(), name.length() - JOURNAL_SUFFIX.length())));
+                } catch (NumberFormatException e) {
+                    // Not one of ours
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Error loading scores: " + e.getMessage());
+        }
+        return generations.stream().mapToInt(Integer::intValue).sorted().toArray();
+    }
+
+    private void deleteJournals(int upToGeneration) {
+        for (int generation : journalGenerations()) {
+            if (generation <= upToGeneration) {
+                try {
+                    Files.deleteIfExists(journalPath(generation));
+                } catch (IOException e) {
+                    System.err.println("Error compacting scores: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static void awaitCompaction(Future<?> running) {
+        try {
+            running.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            System.err.println("Error compacting scores: " + e.getCause().getMessage());
+        }
+    }
+
+    /**
+     * Saves queued scores, waits for a running compaction and stops the
+     * writer and compactor threads.
+     */
+    @Override
+    public void close() {
+        writer.shutdown();
+        try {
+            writer.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        Future<?> running;
+        synchronized (this) {
+            merge();
+            running = compaction;
+            try {
+                journal.close();
+                if (store != null) {
+                    store.close();
+                    store = null;
+                }
+            } catch (IOException e) {
+                System.err.println("Error saving scores: " + e.getMessage());
+            }
+        }
+        if (running != null) {
+            awaitCompaction(running);
+        }
+        compactor.shutdown();
+    }
+
+    /**
+     * Retrieves the list of top scores, highest first.
      * @return A list of the top scores
      */
-    public List<Score> getTopScores() {
-        return new ArrayList<>(topScores);
+    public synchronized List<Score> getTopScores() {
+        merge();
+        return allScores.top(MAX_SCORES);
+    }
+
+    /**
+     * Retrieves the best scores, highest first.
+     * @param k The number of scores wanted
+     * @return Up to k scores
+     */
+    public synchronized List<Score> getTopScores(int k) {
+        merge();
+        return allScores.top(k);
+    }
+
+    /**
+     * Retrieves the best scores at one difficulty, highest first.
+     * @param difficulty The difficulty
+     * @param k The number of scores wanted
+     * @return Up to k scores
+     */
+    public synchronized List<Score> getTopScores(Difficulty difficulty, int k) {
+        merge();
+        Leaderboard scores = difficultyScores.get(difficulty);
+        return scores == null ? new ArrayList<>() : scores.top(k);
+    }
+
+    /**
+     * Retrieves one player's best scores, highest first.
+     * @param name The player's name
+     * @param k The number of scores wanted
+     * @return Up to k scores
+     */
+    public synchronized List<Score> getPlayerScores(String name, int k) {
+        merge();
+        Leaderboard scores = playerScores.get(name);
+        return scores == null ? new ArrayList<>() : scores.top(k);
+    }
+
+    /**
+     * Gets the overall rank a score value would have, where 1 is the best.
+     * @param score The score value
+     * @return The rank
+     */
+    public synchronized int getRank(int score) {
+        merge();
+        return allScores.rankOf(score);
+    }
+
+    /**
+     * Gets the rank a score value would have at one difficulty.
+     * @param difficulty The difficulty
+     * @param score The score value
+     * @return The rank
+     */
+    public synchronized int getRank(Difficulty difficulty, int score) {
+        merge();
+        Leaderboard scores = difficultyScores.get(difficulty);
+        return scores == null ? 1 : scores.rankOf(score);
+    }
+
+    /**
+     * Gets the percentage of all scores at or below a value.
+     * @param score The score value
+     * @return The percentile, from 0 to 100
+     */
+    public synchronized double getPercentile(int score) {
+        merge();
+        return allScores.percentileOf(score);
+    }
+
+    /**
+     * Gets the score at a percentile of all scores.
+     * @param percentile The percentile, from 0 to 100
+     * @return The score, or null if there are none
+     */
+    public synchronized Score getScoreAtPercentile(double percentile) {
+        merge();
+        return allScores.isEmpty() ? null : allScores.atPercentile(percentile);
+    }
+
+    /**
+     * Gets the store every score is copied to.
+     * @return The store, or null if it could not be opened
+     */
+    public synchronized ScoreStore getStore() {
+        return store;
+    }
+
+    public synchronized int getScoreCount() {
+        merge();
+        return allScores.size();
     }
-}
\ No newline at end of file
+}
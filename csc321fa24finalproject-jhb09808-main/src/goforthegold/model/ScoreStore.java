@@ -0,0 +1,314 @@
+package goforthegold.model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A binary file of scores in fixed-width records, memory-mapped in chunks.
+ *
+ * Each record links to the same player's previous record and to their best
+ * record so far, and an index from player name to their newest record is
+ * kept in a {@link HashTable}. A player's history and best score are
+ * therefore answered by following links, never by scanning the file.
+ *
+ * The header holds the number of committed records. It is advanced with a
+ * release store after a record is fully written and read with an acquire
+ * load, so the file may be opened read-only by other programs while the
+ * game appends to it; {@link #refresh()} picks up records written since.
+ *
+ * Header: magic (int), version (int), record size (int), unused (int),
+ * record count (long). Record: name length (byte), name (31 bytes of
+ * UTF-8), score (int), difficulty ordinal or -1 (byte), 3 unused bytes,
+ * previous record of the player (long), best record of the player so far
+ * (long), number of the player's records so far (int), 4 unused bytes.
+ */
+public class ScoreStore implements Closeable {
+    static final int MAGIC = 0x47464753; // "GFGS"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 64;
+    static final int RECORD_BYTES = 64;
+    static final int MAX_NAME_BYTES = 31;
+    static final int CHUNK_RECORDS = 1 << 18;
+    private static final long CHUNK_BYTES = (long) CHUNK_RECORDS * RECORD_BYTES;
+    private static final int COUNT = 16;
+    private static final int NAME = 1;
+    private static final int SCORE = 32;
+    private static final int DIFFICULTY = 36;
+    private static final int PREVIOUS = 40;
+    private static final int BEST = 48;
+    private static final int PLAYER_COUNT = 56;
+    private static final long NONE = -1;
+    private static final VarHandle LONGS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+    private final Path path;
+    private final boolean readOnly;
+    private final FileChannel channel;
+    private final MappedByteBuffer header;
+    private final List<MappedByteBuffer> chunks;
+    private HashTable<String, Long> newest;
+    private long size;
+    private long forced;
+
+    /**
+     * Opens a score store, creating it if it does not exist and the store
+     * is not read-only, and indexes the records in it.
+     * @param path The store file
+     * @param readOnly Whether to open the file for reading only
+     * @throws IOException If the file cannot be opened or is not a score store
+     */
+    public ScoreStore(Path path, boolean readOnly) throws IOException {
+        this.path = path;
+        this.readOnly = readOnly;
+        chunks = new ArrayList<>();
+        channel = readOnly
+                ? FileChannel.open(path, StandardOpenOption.READ)
+                : FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (channel.size() == 0 && !readOnly) {
+                header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+                header.putInt(0, MAGIC);
+                header.putInt(4, VERSION);
+                header.putInt(8, RECORD_BYTES);
+                LONGS.setRelease(header, COUNT, 0L);
+            } else {
+                if (channel.size() < HEADER_BYTES) {
+                    throw new IOException("Not a score store: " + path);
+                }
+                header = channel.map(readOnly ? FileChannel.MapMode.READ_ONLY : FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+                if (header.getInt(0) != MAGIC) {
+                    throw new IOException("Not a score store: " + path);
+                }
+                if (header.getInt(4) != VERSION || header.getInt(8) != RECORD_BYTES) {
+                    throw new IOException("Unsupported score store version " + header.getInt(4));
+                }
+            }
+            newest = new HashTable<>();
+            refresh();
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Indexes the records committed since the store was opened or last
+     * refreshed. Only needed by readers sharing the file with a writer.
+     * If the writer has cut the store back, the index is rebuilt.
+     * @return The number of new records, or -1 if the store was cut back
+     * @throws IOException If the file cannot be mapped
+     */
+    public long refresh() throws IOException {
+        long committed = (long) LONGS.getAcquire(header, COUNT);
+        long added = committed - size;
+        if (committed < size) {
+            newest = new HashTable<>();
+            size = 0;
+            forced = Math.min(forced, committed);
+            added = -1;
+        }
+        for (long record = size; record < committed; record++) {
+            ByteBuffer chunk = chunk(record);
+            newest.put(readName(chunk, offset(record)), record);
+        }
+        size = committed;
+        return added;
+    }
+
+    /**
+     * Appends a score and links it to the player's earlier records.
+     * @param score The score to append
+     * @return The index of the new record
+     * @throws IOException If the file cannot be grown
+     */
+    public long append(Score score) throws IOException {
+        if (readOnly) {
+            throw new IllegalStateException("Score store is read-only: " + path);
+        }
+        String name = storedName(score.getName());
+        long record = size;
+        ByteBuffer chunk = chunk(record);
+        int at = offset(record);
+        Long previous = newest.get(name);
+        long best = record;
+        int playerCount = 1;
+        if (previous != null) {
+            ByteBuffer previousChunk = chunk(previous);
+            int previousAt = offset(previous);
+            long previousBest = previousChunk.getLong(previousAt + BEST);
+            if (chunk(previousBest).getInt(offset(previousBest) + SCORE) >= score.getScore()) {
+                best = previousBest;
+            }
+            playerCount = previousChunk.getInt(previousAt + PLAYER_COUNT) + 1;
+        }
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        chunk.put(at, (byte) nameBytes.length);
+        chunk.put(at + NAME, nameBytes);
+        chunk.putInt(at + SCORE, score.getScore());
+        chunk.put(at + DIFFICULTY, score.getDifficulty() == null ? -1 : (byte) score.getDifficulty().ordinal());
+        chunk.putLong(at + PREVIOUS, previous == null ? NONE : previous);
+        chunk.putLong(at + BEST, best);
+        chunk.putInt(at + PLAYER_COUNT, playerCount);
+        // Publish the record only once it is complete
+        LONGS.setRelease(header, COUNT, record + 1);
+        newest.put(name, record);
+        size = record + 1;
+        return record;
+    }
+
+    /**
+     * Drops every record from the given index on.
+     * @param count The number of records to keep
+     * @throws IOException If the file cannot be mapped
+     */
+    public void truncate(long count) throws IOException {
+        if (readOnly) {
+            throw new IllegalStateException("Score store is read-only: " + path);
+        }
+        if (count < size) {
+            LONGS.setRelease(header, COUNT, Math.max(0, count));
+            refresh();
+        }
+    }
+
+    /**
+     * Gets the score in a record.
+     * @param record The record index, from 0 to size() - 1
+     * @return The score
+     * @throws IOException If the file cannot be mapped
+     */
+    public Score get(long record) throws IOException {
+        if (record < 0 || record >= size) {
+            throw new IndexOutOfBoundsException("Record " + record + " is outside 0.." + (size - 1));
+        }
+        ByteBuffer chunk = chunk(record);
+        int at = offset(record);
+        byte difficulty = chunk.get(at + DIFFICULTY);
+        return new Score(readName(chunk, at), chunk.getInt(at + SCORE),
+                difficulty < 0 ? null : Difficulty.values()[difficulty]);
+    }
+
+    /**
+     * Gets a player's scores, newest first, by following their record links.
+     * @param name The player's name
+     * @param limit The most scores to return
+     * @return Up to limit scores
+     * @throws IOException If the file cannot be mapped
+     */
+    public List<Score> getPlayerScores(String name, int limit) throws IOException {
+        List<Score> scores = new ArrayList<>();
+        Long start = newest.get(storedName(name));
+        long record = start == null ? NONE : start;
+        while (record != NONE && scores.size() < limit) {
+            scores.add(get(record));
+            record = chunk(record).getLong(offset(record) + PREVIOUS);
+        }
+        return scores;
+    }
+
+    /**
+     * Gets a player's best score in constant time.
+     * @param name The player's name
+     * @return The best score, or null if the player has none
+     * @throws IOException If the file cannot be mapped
+     */
+    public Score getBestScore(String name) throws IOException {
+        Long record = newest.get(storedName(name));
+        return record == null ? null : get(chunk(record).getLong(offset(record) + BEST));
+    }
+
+    /**
+     * Gets how many scores a player has in constant time.
+     * @param name The player's name
+     * @return The number of scores
+     * @throws IOException If the file cannot be mapped
+     */
+    public int getPlayerCount(String name) throws IOException {
+        Long record = newest.get(storedName(name));
+        return record == null ? 0 : chunk(record).getInt(offset(record) + PLAYER_COUNT);
+    }
+
+    /**
+     * Forces the records written since the last force to the device, then
+     * the header that counts them.
+     * @throws IOException If the file cannot be mapped
+     */
+    public void force() throws IOException {
+        if (readOnly) {
+            return;
+        }
+        long record = forced;
+        while (record < size) {
+            long chunkEnd = Math.min(size, (record / CHUNK_RECORDS + 1) * CHUNK_RECORDS);
+            MappedByteBuffer chunk = (MappedByteBuffer) chunk(record);
+            chunk.force(offset(record), (int) (chunkEnd - record) * RECORD_BYTES);
+            record = chunkEnd;
+        }
+        header.force();
+        forced = size;
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        channel.close();
+    }
+
+    /**
+     * Maps the chunk holding a record on first use. A writer grows the file
+     * a whole chunk at a time.
+     */
+    private ByteBuffer chunk(long record) throws IOException {
+        int index = (int) (record / CHUNK_RECORDS);
+        while (chunks.size() <= index) {
+            long position = HEADER_BYTES + chunks.size() * CHUNK_BYTES;
+            chunks.add(channel.map(readOnly ? FileChannel.MapMode.READ_ONLY : FileChannel.MapMode.READ_WRITE,
+                    position, CHUNK_BYTES));
+        }
+        return chunks.get(index);
+    }
+
+    private static int offset(long record) {
+        return (int) (record % CHUNK_RECORDS) * RECORD_BYTES;
+    }
+
+    private static String readName(ByteBuffer chunk, int at) {
+        byte[] name = new byte[chunk.get(at)];
+        chunk.get(at + NAME, name);
+        return new String(name, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Shortens a name to the characters that fit in a record.
+     */
+    static String storedName(String name) {
+        String stored = name;
+        while (stored.getBytes(StandardCharsets.UTF_8).length > MAX_NAME_BYTES) {
+            stored = stored.substring(0, stored.offsetByCodePoints(stored.length(), -1));
+        }
+        return stored;
+    }
+
+    //Getters
+    public Path getPath() {
+        return path;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public int getPlayers() {
+        return newest.size();
+    }
+}
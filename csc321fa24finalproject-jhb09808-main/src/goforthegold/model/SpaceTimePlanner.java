@@ -0,0 +1,160 @@
+package goforthegold.model;
+
+import java.util.Arrays;
+
+/**
+ * Windowed space-time A* for one robot among others (WHCA*).
+ *
+ * The search runs over (x, y, t) for a fixed window of ticks. A robot may
+ * step to a neighbor or wait in place, and every step must be allowed by a
+ * {@link ReservationTable} holding the other robots' plans. Beyond the
+ * window the true distance from a goal {@link FlowField} is used, which
+ * ignores other robots and so never overestimates.
+ *
+ * Each planner keeps its own scratch arrays, so separate planners can
+ * search in parallel against the same table as long as nobody writes to it.
+ */
+public class SpaceTimePlanner {
+    // Move 0 is waiting in place
+    private static final int[] DX = {0, -1, 1, 0, 0};
+    private static final int[] DY = {0, 0, 0, -1, 1};
+
+    private final int size;
+    private final int cells;
+    private final int window;
+    private final int[] cost;
+    private final int[] parent;
+    private final int[] stamp;
+    private int generation;
+    private long[] heap;
+    private int heapSize;
+
+    /**
+     * Constructs a new SpaceTimePlanner.
+     * @param size The size of the grid
+     * @param window The number of ticks to plan ahead
+     */
+    public SpaceTimePlanner(int size, int window) {
+        this.size = size;
+        this.cells = size * size;
+        this.window = window;
+        this.cost = new int[(window + 1) * cells];
+        this.parent = new int[(window + 1) * cells];
+        this.stamp = new int[(window + 1) * cells];
+        this.heap = new long[64];
+    }
+
+    /**
+     * Plans up to one window ahead toward the target of a flow field.
+     * @param world The world whose obstacles block movement
+     * @param table The other robots' reservations
+     * @param id The planning robot, whose own reservations are ignored
+     * @param startX The robot's x-coordinate at the start tick
+     * @param startY The robot's y-coordinate at the start tick
+     * @param startTime The current tick
+     * @param goal A complete flow field toward the robot's goal
+     * @return The packed cells ({@link PatrolRoute#pack}) for the ticks after
+     *         startTime, ending at the goal or the end of the window, or null
+     *         if the goal cannot be reached or every first step is blocked
+     */
+    public int[] plan(World world, ReservationTable table, int id, int startX, int startY, int startTime, FlowField goal) {
+        int startDistance = goal.getDistance(startX, startY);
+        if (startDistance < 0) {
+            return null;
+        }
+        generation++;
+        heapSize = 0;
+        int start = startX * size + startY;
+        stamp[start] = generation;
+        cost[start] = 0;
+        parent[start] = -1;
+        push((long) startDistance << 32 | start);
+
+        while (heapSize > 0) {
+            long key = pop();
+            int node = (int) key;
+            int t = node / cells;
+            int cell = node - t * cells;
+            int x = cell / size;
+            int y = cell - x * size;
+            int distance = goal.getDistance(x, y);
+            if ((int) (key >>> 32) != cost[node] + distance) {
+                continue; // Superseded by a cheaper entry
+            }
+            if (t == window || (distance == 0 && t > 0)) {
+                return reconstruct(node);
+            }
+
+            for (int d = 0; d < DX.length; d++) {
+                int nx = x + DX[d];
+                int ny = y + DY[d];
+                int nextDistance = goal.getDistance(nx, ny);
+                if (nextDistance < 0 || !table.canStep(x, y, nx, ny, startTime + t, id)) {
+                    continue;
+                }
+                int next = (t + 1) * cells + nx * size + ny;
+                int nextCost = cost[node] + 1;
+                if (stamp[next] != generation || nextCost < cost[next]) {
+                    stamp[next] = generation;
+                    cost[next] = nextCost;
+                    parent[next] = node;
+                    push((long) (nextCost + nextDistance) << 32 | next);
+                }
+            }
+        }
+        return null;
+    }
+
+    private int[] reconstruct(int node) {
+        int[] path = new int[node / cells];
+        for (int i = path.length - 1; i >= 0; i--) {
+            int cell = node % cells;
+            path[i] = PatrolRoute.pack(cell / size, cell % size);
+            node = parent[node];
+        }
+        return path;
+    }
+
+    private void push(long key) {
+        if (heapSize == heap.length) {
+            heap = Arrays.copyOf(heap, heapSize * 2);
+        }
+        int i = heapSize++;
+        while (i > 0) {
+            int up = (i - 1) >>> 1;
+            if (heap[up] <= key) {
+                break;
+            }
+            heap[i] = heap[up];
+            i = up;
+        }
+        heap[i] = key;
+    }
+
+    private long pop() {
+        long top = heap[0];
+        long last = heap[--heapSize];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if (heap[child] >= last) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = last;
+        return top;
+    }
+
+    //Getters
+    public int getWindow() {
+        return window;
+    }
+}
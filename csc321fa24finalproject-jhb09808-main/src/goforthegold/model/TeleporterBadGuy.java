@@ -1,5 +1,7 @@
 package goforthegold.model;
 
+import java.util.random.RandomGenerator;
+
 /**
  * Represents a teleporter type bad guy in the game.
  */
@@ -17,29 +19,39 @@ public class TeleporterBadGuy extends BadGuy {
    }
 
    @Override
-   public void move(World world, Robot robot, Difficulty difficulty) {
-      if (Math.random() < getDifficultyIntelligence(difficulty)) {
-          moveIntelligently(world, robot);
+   public int saveState() {
+      return teleportCooldown;
+   }
+
+   @Override
+   protected void restoreState(int state) {
+      teleportCooldown = state;
+   }
+
+   @Override
+   public void move(World world, Robot robot, Difficulty difficulty, RandomGenerator random) {
+      if (random.nextDouble() < getDifficultyIntelligence(difficulty)) {
+          moveIntelligently(world, robot, random);
       } else {
-          moveRandomly(world);
+          moveRandomly(world, random);
       }
    }
 
-   private void moveIntelligently(World world, Robot robot) {
+   private void moveIntelligently(World world, Robot robot, RandomGenerator random) {
       if (teleportCooldown == 0) {
-          teleportNearRobot(world, robot);
+          teleportNearRobot(world, robot, random);
       } else {
           moveTowardsRobot(world, robot);
       }
    }
 
-   private void moveRandomly(World world) {
+   private void moveRandomly(World world, RandomGenerator random) {
       if (teleportCooldown == 0) {
           teleportCooldown = 5;
           teleportToRandomCell(world);
       } else {
           teleportCooldown--;
-          randomMove(world);
+          randomMove(world, random);
       }
    }
 
@@ -54,9 +66,9 @@ public class TeleporterBadGuy extends BadGuy {
       }
    }
 
-   private void randomMove(World world) {
-      int dx = (int)(Math.random() * 3) - 1;
-      int dy = (int)(Math.random() * 3) - 1;
+   private void randomMove(World world, RandomGenerator random) {
+      int dx = random.nextInt(3) - 1;
+      int dy = random.nextInt(3) - 1;
       if (world.isValidMove(x + dx, y + dy)) {
           x += dx;
           y += dy;
@@ -74,11 +86,11 @@ public class TeleporterBadGuy extends BadGuy {
    }
 
 
-   private void teleportNearRobot(World world, Robot robot) {
+   private void teleportNearRobot(World world, Robot robot, RandomGenerator random) {
       int maxAttempts = 10;
       for (int i = 0; i < maxAttempts; i++) {
-          int newX = robot.getX() + (int)(Math.random() * 5) - 2; 
-          int newY = robot.getY() + (int)(Math.random() * 5) - 2;
+          int newX = robot.getX() + random.nextInt(5) - 2; 
+          int newY = robot.getY() + random.nextInt(5) - 2;
           if (world.isValidMove(newX, newY)) {
               x = newX;
               y = newY;
@@ -87,6 +99,6 @@ public class TeleporterBadGuy extends BadGuy {
           }
       }
       
-      randomMove(world);
+      randomMove(world, random);
    }
 }
\ No newline at end of file
@@ -0,0 +1,145 @@
+package goforthegold.model;
+
+/**
+ * A bounded undo history that stores each move as a run of primitive ints
+ * in one ring buffer.
+ *
+ * A move is opened with {@link #beginMove()} and filled with {@link #push}.
+ * When more than {@code depth} moves are held, the oldest one is dropped,
+ * so memory stays bounded however long the game runs. {@link #popMove()}
+ * rewinds to the start of the newest move and the caller reads its values
+ * back in the order they were pushed.
+ */
+public class UndoJournal {
+    private final int depth;
+    private int[] data;
+    private int mask;
+    private final long[] moveStarts;
+    private int moveCount;
+    private int newestMove;
+    private long tail;
+    private long head;
+    private long cursor;
+    private long end;
+
+    /**
+     * Constructs a new UndoJournal.
+     * @param depth The most moves that can be undone
+     */
+    public UndoJournal(int depth) {
+        if (depth < 1) {
+            throw new IllegalArgumentException("Undo depth must be positive");
+        }
+        this.depth = depth;
+        this.data = new int[64];
+        this.mask = data.length - 1;
+        this.moveStarts = new long[depth];
+        this.newestMove = -1;
+    }
+
+    /**
+     * Starts recording a new move, dropping the oldest move if the journal is full.
+     */
+    public void beginMove() {
+        if (moveCount == depth) {
+            // The oldest slot is reused below, so the data now starts at the next move
+            moveCount--;
+            tail = moveCount == 0 ? head : moveStarts[(newestMove + 2) % depth];
+        }
+        newestMove = (newestMove + 1) % depth;
+        moveStarts[newestMove] = head;
+        moveCount++;
+    }
+
+    /**
+     * Appends a value to the move being recorded.
+     * @param value The value to record
+     */
+    public void push(int value) {
+        if (head - tail == data.length) {
+            grow();
+        }
+        data[(int) (head++ & mask)] = value;
+    }
+
+    /**
+     * Appends a long value as two ints.
+     * @param value The value to record
+     */
+    public void push(long value) {
+        push((int) (value >>> 32));
+        push((int) value);
+    }
+
+    private void grow() {
+        int[] larger = new int[data.length * 2];
+        int largerMask = larger.length - 1;
+        for (long i = tail; i < head; i++) {
+            larger[(int) (i & largerMask)] = data[(int) (i & mask)];
+        }
+        data = larger;
+        mask = largerMask;
+    }
+
+    /**
+     * Removes the newest move and positions the reader at its first value.
+     * The values stay readable until the next move is recorded.
+     * @return true if there was a move to remove, false if the journal is empty
+     */
+    public boolean popMove() {
+        if (moveCount == 0) {
+            return false;
+        }
+        end = head;
+        head = moveStarts[newestMove];
+        cursor = head;
+        newestMove = (newestMove + depth - 1) % depth;
+        moveCount--;
+        return true;
+    }
+
+    /**
+     * Checks if the popped move has unread values.
+     * @return true if another value can be read
+     */
+    public boolean hasNext() {
+        return cursor < end;
+    }
+
+    /**
+     * Reads the next value of the popped move.
+     * @return The value
+     */
+    public int next() {
+        return data[(int) (cursor++ & mask)];
+    }
+
+    /**
+     * Reads the next two values of the popped move as a long.
+     * @return The value
+     */
+    public long nextLong() {
+        long high = next();
+        return high << 32 | (next() & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Forgets every recorded move.
+     */
+    public void clear() {
+        moveCount = 0;
+        newestMove = -1;
+        tail = head;
+        cursor = head;
+        end = head;
+    }
+
+    //Getters
+    public int size() {
+        return moveCount;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+}
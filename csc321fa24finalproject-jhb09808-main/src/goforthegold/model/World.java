@@ -1,8 +1,9 @@
 package goforthegold.model;
 
-import java.util.Random;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.random.RandomGenerator;
 
 /**
  * Represents the game world.
@@ -10,18 +11,31 @@ import java.util.List;
 public class World {
     private int[][] grid;
     private int size;
-    private Random random;
+    private RandomGenerator random;
     private List<PowerUp> powerUps;
     private boolean[][] obstacles;
+    private FlowField robotFlowField;
+    private HashTable<String, PatrolRoute> patrolRoutes;
+    private FlowField routeField;
+    private int obstacleVersion;
 
     /**
      * Constructs a new World with the specified size.
      * @param size The size of the world grid
      */
     public World(int size) {
+        this(size, RandomSource.create());
+    }
+
+    /**
+     * Constructs a new World that draws all its randomness from the given generator.
+     * @param size The size of the world grid
+     * @param random The random generator used for obstacles, power-ups and cell picks
+     */
+    public World(int size, RandomGenerator random) {
         this.size = size;
         this.grid = new int[size][size];
-        this.random = new Random();
+        this.random = random;
         this.powerUps = new ArrayList<>();
         this.obstacles = new boolean[size][size];
         initializeGrid();
@@ -72,11 +86,26 @@ public class World {
         }
     }
 
+    public void unmarkVisited(int x, int y) {
+        if (isValidMove(x, y)) {
+            grid[x][y] = 0;
+        }
+    }
+
     public boolean isVisited(int x, int y) {
         return isValidMove(x, y) && grid[x][y] == 1;
     }
 
     public int[] getRandomUnvisitedCell() {
+        return getRandomUnvisitedCell(random);
+    }
+
+    /**
+     * Picks a random cell that is neither visited nor an obstacle.
+     * @param random The generator to draw from, for callers that must not share the world's
+     * @return The cell as {x, y}
+     */
+    public int[] getRandomUnvisitedCell(RandomGenerator random) {
         int[] cell = new int[2];
         do {
             cell[0] = random.nextInt(size);
@@ -98,6 +127,15 @@ public class World {
         powerUps.remove(powerUp);
     }
 
+    /**
+     * Puts a collected power-up back where it was in the list, for undo.
+     * @param index The position the power-up had in {@link #getPowerUps()}
+     * @param powerUp The power-up to restore
+     */
+    public void restorePowerUp(int index, PowerUp powerUp) {
+        powerUps.add(index, powerUp);
+    }
+
     public boolean isObstacle(int x, int y) {
         return obstacles[x][y];
     }
@@ -109,10 +147,87 @@ public class World {
     public void setObstacle(int x, int y) {
         if (isValidMove(x, y)) {
             obstacles[x][y] = true;
+            obstacleVersion++;
+            if (robotFlowField != null) {
+                robotFlowField.invalidate();
+            }
+            patrolRoutes = null;
+        }
+    }
+
+    /**
+     * Removes every obstacle, so a maze can be carved into an open world.
+     */
+    public void clearObstacles() {
+        for (boolean[] column : obstacles) {
+            Arrays.fill(column, false);
         }
+        obstacleVersion++;
+        if (robotFlowField != null) {
+            robotFlowField.invalidate();
+        }
+        patrolRoutes = null;
+    }
+
+    /**
+     * Gets the patrol loop through the given points, building it on first use.
+     * Patrollers with the same points share one route.
+     * @param points The patrol points as {x, y} pairs
+     * @return The route, or null if the points do not form a walkable loop
+     */
+    public PatrolRoute getPatrolRoute(int[][] points) {
+        StringBuilder key = new StringBuilder();
+        for (int[] point : points) {
+            key.append(point[0]).append(',').append(point[1]).append(';');
+        }
+        if (patrolRoutes == null) {
+            patrolRoutes = new HashTable<>();
+        }
+        PatrolRoute route = patrolRoutes.get(key.toString());
+        if (route == null) {
+            route = PatrolRoute.build(this, points, getRouteField());
+            if (route != null) {
+                patrolRoutes.put(key.toString(), route);
+            }
+        }
+        return route;
+    }
+
+    /**
+     * Gets the scratch flow field that patrol routes, and patrollers finding
+     * their way back to them, search with. It is only valid until the next
+     * search, so it must not be used from two threads at once.
+     * @return The scratch flow field
+     */
+    public FlowField getRouteField() {
+        if (routeField == null) {
+            routeField = new FlowField(size);
+        }
+        return routeField;
+    }
+
+    /**
+     * Gets the flow field toward the robot that all pursuing bad guys share.
+     * The game updates it once per tick before the bad guys move.
+     * @return The shared flow field
+     */
+    public FlowField getRobotFlowField() {
+        if (robotFlowField == null) {
+            robotFlowField = new FlowField(size);
+        }
+        return robotFlowField;
     }
 
     public List<PowerUp> getPowerUps() {
         return powerUps;
     }
+
+    /**
+     * Gets a number that changes whenever an obstacle is added or removed,
+     * so callers can tell when fields cached over the obstacles are stale.
+     * @return The obstacle version
+     */
+    public int getObstacleVersion() {
+        return obstacleVersion;
+    }
 }
\ No newline at end of file
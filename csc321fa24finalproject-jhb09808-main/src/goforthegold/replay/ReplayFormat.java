@@ -0,0 +1,87 @@
+package goforthegold.replay;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Constants and encoding helpers shared by the replay writer and reader.
+ *
+ * A replay file is a header followed by records. Every record is a type
+ * byte, a payload length and the payload. The first records are the static
+ * world and a snapshot at tick 0; after that come one tick record per move
+ * and another snapshot every K ticks.
+ *
+ * A tick record is a run of nibbles, two per byte with the first in the
+ * low half: the robot's code, then one code per enemy. After them come the
+ * robot's new cell if it jumped, then the enemies that jumped.
+ */
+final class ReplayFormat {
+    static final int MAGIC = 0x47464752; // "GFGR"
+    static final short VERSION = 2;
+    static final int HEADER_BYTES = 4 + 2 + 8 + 4 + 1 + 4;
+    static final int RECORD_HEADER_BYTES = 1 + 4;
+
+    static final byte RECORD_WORLD = 0;
+    static final byte RECORD_SNAPSHOT = 1;
+    static final byte RECORD_TICK = 2;
+
+    /**
+     * Robot codes 0-3 are unit steps held in the low 2 bits. ROBOT_ESCAPE
+     * marks the rare tick that is not a step, with the low bits then
+     * telling a stay from a jump.
+     */
+    static final int[] ROBOT_DX = {0, 0, -1, 1};
+    static final int[] ROBOT_DY = {-1, 1, 0, 0};
+    static final int ROBOT_ESCAPE = 4;
+    static final int ROBOT_STAY = ROBOT_ESCAPE;
+    static final int ROBOT_JUMP = ROBOT_ESCAPE | 1;
+
+    /** Enemy codes 0-8 are (dx + 1) * 3 + (dy + 1); anything else is a jump. */
+    static final int ENEMY_JUMP = 15;
+
+    private ReplayFormat() {
+    }
+
+    static int robotCode(int dx, int dy) {
+        for (int code = 0; code < 4; code++) {
+            if (ROBOT_DX[code] == dx && ROBOT_DY[code] == dy) {
+                return code;
+            }
+        }
+        return dx == 0 && dy == 0 ? ROBOT_STAY : ROBOT_JUMP;
+    }
+
+    static int enemyCode(int dx, int dy) {
+        if (dx < -1 || dx > 1 || dy < -1 || dy > 1) {
+            return ENEMY_JUMP;
+        }
+        return (dx + 1) * 3 + (dy + 1);
+    }
+
+    static int enemyDx(int code) {
+        return code / 3 - 1;
+    }
+
+    static int enemyDy(int code) {
+        return code % 3 - 1;
+    }
+
+    static void putVarInt(ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    static int getVarInt(ByteBuffer buffer) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return value;
+    }
+}
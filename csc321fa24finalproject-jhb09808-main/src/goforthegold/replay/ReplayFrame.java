@@ -0,0 +1,267 @@
+package goforthegold.replay;
+
+import goforthegold.model.BadGuyType;
+import goforthegold.model.PowerUpType;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * The state of a recorded game at one tick, rebuilt from a replay log.
+ */
+public class ReplayFrame {
+    private static final double MOVE_COST = 100.0;
+    private static final int COIN_SCORE = 100;
+
+    // Static world, shared by every frame of one replay
+    private final int size;
+    private final boolean[] obstacles;
+    private final int goldX;
+    private final int goldY;
+    private final byte[] enemyTypes;
+
+    private int tick;
+    private int robotX;
+    private int robotY;
+    private double money;
+    private int moveCount;
+    private int score;
+    private int coinsCollected;
+    private int coinCount;
+    private int[] coins;
+    private int powerUpCount;
+    private int[] powerUps;
+    private int[] enemyX;
+    private int[] enemyY;
+    private boolean[] visited;
+
+    ReplayFrame(int size, boolean[] obstacles, int goldX, int goldY, byte[] enemyTypes) {
+        this.size = size;
+        this.obstacles = obstacles;
+        this.goldX = goldX;
+        this.goldY = goldY;
+        this.enemyTypes = enemyTypes;
+        this.coins = new int[0];
+        this.powerUps = new int[0];
+        this.enemyX = new int[enemyTypes.length];
+        this.enemyY = new int[enemyTypes.length];
+        this.visited = new boolean[size * size];
+    }
+
+    /**
+     * Creates an independent copy of this frame.
+     * @return The copy
+     */
+    public ReplayFrame copy() {
+        ReplayFrame copy = new ReplayFrame(size, obstacles, goldX, goldY, enemyTypes);
+        copy.tick = tick;
+        copy.robotX = robotX;
+        copy.robotY = robotY;
+        copy.money = money;
+        copy.moveCount = moveCount;
+        copy.score = score;
+        copy.coinsCollected = coinsCollected;
+        copy.coinCount = coinCount;
+        copy.coins = Arrays.copyOf(coins, coinCount * 3);
+        copy.powerUpCount = powerUpCount;
+        copy.powerUps = Arrays.copyOf(powerUps, powerUpCount * 3);
+        copy.enemyX = enemyX.clone();
+        copy.enemyY = enemyY.clone();
+        copy.visited = visited.clone();
+        return copy;
+    }
+
+    /**
+     * Loads the dynamic state from a snapshot payload.
+     */
+    void readSnapshot(ByteBuffer in) {
+        tick = in.getInt();
+        robotX = in.getInt();
+        robotY = in.getInt();
+        money = in.getDouble();
+        moveCount = in.getInt();
+        score = in.getInt();
+        coinsCollected = in.getInt();
+
+        coinCount = in.getInt();
+        coins = new int[coinCount * 3];
+        for (int i = 0; i < coins.length; i++) {
+            coins[i] = in.getInt();
+        }
+        powerUpCount = in.getInt();
+        powerUps = new int[powerUpCount * 3];
+        for (int i = 0; i < powerUpCount; i++) {
+            powerUps[i * 3] = in.getInt();
+            powerUps[i * 3 + 1] = in.getInt();
+            powerUps[i * 3 + 2] = in.get();
+        }
+        int enemies = in.getInt();
+        for (int i = 0; i < enemies; i++) {
+            enemyX[i] = in.getInt();
+            enemyY[i] = in.getInt();
+        }
+        byte[] bits = new byte[in.getInt()];
+        in.get(bits);
+        for (int cell = 0; cell < visited.length; cell++) {
+            visited[cell] = (bits[cell >> 3] & (1 << (cell & 7))) != 0;
+        }
+    }
+
+    /**
+     * Applies one tick record, replaying the robot's move and the game's
+     * follow-up rules: move cost, coin pick-up and power-up pick-up.
+     */
+    void applyTick(ByteBuffer in) {
+        tick++;
+        int first = in.get() & 0xFF;
+        int robotCode = first & 0x0F;
+        int enemies = enemyX.length;
+        if (enemies > 0) {
+            applyEnemyCode(0, first >>> 4);
+        }
+        for (int i = 1; i < enemies; i += 2) {
+            int packed = in.get() & 0xFF;
+            applyEnemyCode(i, packed & 0x0F);
+            if (i + 1 < enemies) {
+                applyEnemyCode(i + 1, packed >>> 4);
+            }
+        }
+        if (robotCode == ReplayFormat.ROBOT_JUMP) {
+            moveRobot(ReplayFormat.getVarInt(in), ReplayFormat.getVarInt(in));
+        } else if (robotCode != ReplayFormat.ROBOT_STAY) {
+            moveRobot(robotX + ReplayFormat.ROBOT_DX[robotCode], robotY + ReplayFormat.ROBOT_DY[robotCode]);
+        }
+
+        int jumps = ReplayFormat.getVarInt(in);
+        for (int j = 0; j < jumps; j++) {
+            int index = ReplayFormat.getVarInt(in);
+            enemyX[index] = ReplayFormat.getVarInt(in);
+            enemyY[index] = ReplayFormat.getVarInt(in);
+        }
+    }
+
+    private void applyEnemyCode(int index, int code) {
+        if (code != ReplayFormat.ENEMY_JUMP) {
+            enemyX[index] += ReplayFormat.enemyDx(code);
+            enemyY[index] += ReplayFormat.enemyDy(code);
+        }
+    }
+
+    private void moveRobot(int x, int y) {
+        robotX = x;
+        robotY = y;
+        money -= MOVE_COST;
+        moveCount++;
+        visited[x * size + y] = true;
+
+        for (int i = 0; i < coinCount; i++) {
+            if (coins[i * 3] == x && coins[i * 3 + 1] == y) {
+                money += coins[i * 3 + 2];
+                coinsCollected++;
+                score += COIN_SCORE;
+                System.arraycopy(coins, (i + 1) * 3, coins, i * 3, (coinCount - i - 1) * 3);
+                coinCount--;
+                break;
+            }
+        }
+        for (int i = 0; i < powerUpCount; i++) {
+            if (powerUps[i * 3] == x && powerUps[i * 3 + 1] == y) {
+                System.arraycopy(powerUps, (i + 1) * 3, powerUps, i * 3, (powerUpCount - i - 1) * 3);
+                powerUpCount--;
+                break;
+            }
+        }
+    }
+
+    //Getters
+    public int getTick() {
+        return tick;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public boolean isObstacle(int x, int y) {
+        return obstacles[x * size + y];
+    }
+
+    public boolean isVisited(int x, int y) {
+        return visited[x * size + y];
+    }
+
+    public int getGoldX() {
+        return goldX;
+    }
+
+    public int getGoldY() {
+        return goldY;
+    }
+
+    public int getRobotX() {
+        return robotX;
+    }
+
+    public int getRobotY() {
+        return robotY;
+    }
+
+    public double getMoney() {
+        return money;
+    }
+
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public int getCoinsCollected() {
+        return coinsCollected;
+    }
+
+    public int getCoinCount() {
+        return coinCount;
+    }
+
+    public int getCoinX(int index) {
+        return coins[index * 3];
+    }
+
+    public int getCoinY(int index) {
+        return coins[index * 3 + 1];
+    }
+
+    public int getPowerUpCount() {
+        return powerUpCount;
+    }
+
+    public int getPowerUpX(int index) {
+        return powerUps[index * 3];
+    }
+
+    public int getPowerUpY(int index) {
+        return powerUps[index * 3 + 1];
+    }
+
+    public PowerUpType getPowerUpType(int index) {
+        return PowerUpType.values()[powerUps[index * 3 + 2]];
+    }
+
+    public int getEnemyCount() {
+        return enemyX.length;
+    }
+
+    public int getEnemyX(int index) {
+        return enemyX[index];
+    }
+
+    public int getEnemyY(int index) {
+        return enemyY[index];
+    }
+
+    public BadGuyType getEnemyType(int index) {
+        return BadGuyType.values()[enemyTypes[index]];
+    }
+}
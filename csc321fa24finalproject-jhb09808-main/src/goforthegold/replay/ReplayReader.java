@@ -0,0 +1,153 @@
+package goforthegold.replay;
+
+import goforthegold.model.Difficulty;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Reads a replay file and rebuilds the game at any tick.
+ *
+ * Opening the file only walks the record headers to index the snapshots.
+ * Seeking loads the nearest snapshot at or before the requested tick and
+ * applies at most K tick records on top of it.
+ */
+public class ReplayReader {
+    private final ByteBuffer data;
+    private final long seed;
+    private final int gridSize;
+    private final Difficulty difficulty;
+    private final int snapshotInterval;
+    private final ReplayFrame world;
+    private final int tickCount;
+    private int snapshotCount;
+    private int[] snapshotTicks;
+    private int[] snapshotPositions;
+
+    /**
+     * Opens a replay file and indexes its snapshots.
+     * @param path The replay file to read
+     * @throws IOException If the file cannot be read or is not a replay
+     */
+    public ReplayReader(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (data.remaining() < ReplayFormat.HEADER_BYTES || data.getInt(0) != ReplayFormat.MAGIC) {
+            throw new IOException("Not a replay file: " + path);
+        }
+        if (data.getShort(4) != ReplayFormat.VERSION) {
+            throw new IOException("Unsupported replay version " + data.getShort(4));
+        }
+        seed = data.getLong(6);
+        gridSize = data.getInt(14);
+        difficulty = Difficulty.values()[data.get(18)];
+        snapshotInterval = data.getInt(19);
+
+        snapshotTicks = new int[16];
+        snapshotPositions = new int[16];
+        ReplayFrame worldFrame = null;
+        int ticks = 0;
+        int position = ReplayFormat.HEADER_BYTES;
+        // A partly written trailing record (e.g. after a crash) is ignored
+        while (position + ReplayFormat.RECORD_HEADER_BYTES <= data.limit()) {
+            byte type = data.get(position);
+            int length = data.getInt(position + 1);
+            int payload = position + ReplayFormat.RECORD_HEADER_BYTES;
+            if (payload + length > data.limit()) {
+                break;
+            }
+            if (type == ReplayFormat.RECORD_WORLD) {
+                worldFrame = readWorld(data.slice(payload, length));
+            } else if (type == ReplayFormat.RECORD_SNAPSHOT) {
+                addSnapshot(data.getInt(payload), position);
+            } else if (type == ReplayFormat.RECORD_TICK) {
+                ticks++;
+            }
+            position = payload + length;
+        }
+        if (worldFrame == null || snapshotCount == 0) {
+            throw new IOException("Replay file has no starting state: " + path);
+        }
+        world = worldFrame;
+        tickCount = ticks;
+    }
+
+    private ReplayFrame readWorld(ByteBuffer in) {
+        int goldX = in.getInt();
+        int goldY = in.getInt();
+        byte[] bits = new byte[(gridSize * gridSize + 7) / 8];
+        in.get(bits);
+        boolean[] obstacles = new boolean[gridSize * gridSize];
+        for (int cell = 0; cell < obstacles.length; cell++) {
+            obstacles[cell] = (bits[cell >> 3] & (1 << (cell & 7))) != 0;
+        }
+        byte[] enemyTypes = new byte[in.getInt()];
+        in.get(enemyTypes);
+        return new ReplayFrame(gridSize, obstacles, goldX, goldY, enemyTypes);
+    }
+
+    private void addSnapshot(int tick, int position) {
+        if (snapshotCount == snapshotTicks.length) {
+            snapshotTicks = Arrays.copyOf(snapshotTicks, snapshotCount * 2);
+            snapshotPositions = Arrays.copyOf(snapshotPositions, snapshotCount * 2);
+        }
+        snapshotTicks[snapshotCount] = tick;
+        snapshotPositions[snapshotCount] = position;
+        snapshotCount++;
+    }
+
+    /**
+     * Rebuilds the game as it was after the given number of ticks.
+     * @param tick The tick to seek to, from 0 to {@link #getTickCount()}
+     * @return The game state at that tick
+     */
+    public ReplayFrame seek(int tick) {
+        if (tick < 0 || tick > tickCount) {
+            throw new IndexOutOfBoundsException("Tick " + tick + " is outside 0.." + tickCount);
+        }
+        int index = Arrays.binarySearch(snapshotTicks, 0, snapshotCount, tick);
+        if (index < 0) {
+            index = -index - 2;
+        }
+        ReplayFrame frame = world.copy();
+        int position = snapshotPositions[index];
+        int length = data.getInt(position + 1);
+        frame.readSnapshot(data.slice(position + ReplayFormat.RECORD_HEADER_BYTES, length));
+        position += ReplayFormat.RECORD_HEADER_BYTES + length;
+
+        while (frame.getTick() < tick) {
+            byte type = data.get(position);
+            length = data.getInt(position + 1);
+            if (type == ReplayFormat.RECORD_TICK) {
+                frame.applyTick(data.slice(position + ReplayFormat.RECORD_HEADER_BYTES, length));
+            }
+            position += ReplayFormat.RECORD_HEADER_BYTES + length;
+        }
+        return frame;
+    }
+
+    //Getters
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getGridSize() {
+        return gridSize;
+    }
+
+    public Difficulty getDifficulty() {
+        return difficulty;
+    }
+
+    public int getSnapshotInterval() {
+        return snapshotInterval;
+    }
+
+    public int getTickCount() {
+        return tickCount;
+    }
+}
@@ -0,0 +1,267 @@
+package goforthegold.replay;
+
+import goforthegold.controller.GameEventSink;
+import goforthegold.controller.GameManager;
+import goforthegold.model.BadGuy;
+import goforthegold.model.BadGuySwarm;
+import goforthegold.model.Coin;
+import goforthegold.model.PowerUp;
+import goforthegold.model.World;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Event sink that records a game to a replay file while passing every event
+ * on to another sink.
+ *
+ * Each move is stored as a delta: a nibble for the robot's step packed
+ * with one nibble per enemy, with the rare enemy that moves more than one cell (teleporters)
+ * written out in full. A full snapshot every few ticks lets the reader seek
+ * without replaying from the start.
+ */
+public class ReplayRecorder implements GameEventSink, Closeable {
+    public static final int DEFAULT_SNAPSHOT_INTERVAL = 64;
+
+    private final ReplayWriter writer;
+    private final GameEventSink delegate;
+    private final int snapshotInterval;
+    private GameManager game;
+    private int tick;
+    private int robotX;
+    private int robotY;
+    private int[] enemyX;
+    private int[] enemyY;
+    private int[] jumps;
+
+    /**
+     * Constructs a new ReplayRecorder writing to a file.
+     * @param path The replay file to write
+     * @param snapshotInterval The number of ticks between full snapshots
+     * @param delegate The sink that receives every event after it is recorded
+     * @throws IOException If the file cannot be opened
+     */
+    public ReplayRecorder(Path path, int snapshotInterval, GameEventSink delegate) throws IOException {
+        if (snapshotInterval < 1) {
+            throw new IllegalArgumentException("Snapshot interval must be positive");
+        }
+        this.writer = new ReplayWriter(path);
+        this.snapshotInterval = snapshotInterval;
+        this.delegate = delegate;
+    }
+
+    /**
+     * Writes the header, the static world and the starting snapshot, then
+     * installs this recorder as the game's event sink. Call it after the game
+     * is set up (including any swarm) and before the first move.
+     * @param game The game to record
+     * @throws IOException If the file cannot be written
+     */
+    public void attach(GameManager game) throws IOException {
+        if (this.game != null) {
+            throw new IllegalStateException("Recorder is already attached to a game");
+        }
+        this.game = game;
+        World world = game.getWorld();
+        int size = world.getSize();
+        writer.writeHeader(game.getSeed(), size, game.getDifficulty().ordinal(), snapshotInterval);
+
+        int enemies = enemyCount();
+        enemyX = new int[enemies];
+        enemyY = new int[enemies];
+        jumps = new int[enemies];
+
+        ByteBuffer out = writer.payload(8 + bitsetBytes(size) + 4 + enemies);
+        out.putInt(game.getGold().getX());
+        out.putInt(game.getGold().getY());
+        byte[] obstacles = new byte[bitsetBytes(size)];
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                if (world.isObstacle(x, y)) {
+                    setBit(obstacles, x * size + y);
+                }
+            }
+        }
+        out.put(obstacles);
+        out.putInt(enemies);
+        for (BadGuy badGuy : game.getBadGuys()) {
+            out.put((byte) badGuy.getType().ordinal());
+        }
+        BadGuySwarm swarm = game.getSwarm();
+        for (int i = 0; swarm != null && i < swarm.size(); i++) {
+            out.put((byte) swarm.getType(i).ordinal());
+        }
+        writer.writeRecord(ReplayFormat.RECORD_WORLD);
+
+        robotX = game.getRobot().getX();
+        robotY = game.getRobot().getY();
+        readEnemies(enemyX, enemyY);
+        writeSnapshot();
+        game.setEventSink(this);
+    }
+
+    @Override
+    public void message(String text) {
+        delegate.message(text);
+    }
+
+    @Override
+    public void moveCompleted(GameManager game) {
+        try {
+            writeTick();
+            if (tick % snapshotInterval == 0) {
+                writeSnapshot();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        delegate.moveCompleted(game);
+    }
+
+    private void writeTick() throws IOException {
+        int enemies = enemyX.length;
+        if (enemyCount() != enemies) {
+            throw new IllegalStateException("The number of bad guys changed during a recorded game");
+        }
+        tick++;
+        ByteBuffer out = writer.payload((enemies + 2) / 2 + 10 + 5 + enemies * 15);
+
+        int newRobotX = game.getRobot().getX();
+        int newRobotY = game.getRobot().getY();
+        int robotCode = ReplayFormat.robotCode(newRobotX - robotX, newRobotY - robotY);
+
+        // The robot's code shares the first byte with the first enemy; enemy
+        // deltas follow two per byte and jumps are listed after the nibbles
+        int jumpCount = 0;
+        int packed = robotCode;
+        List<BadGuy> badGuys = game.getBadGuys();
+        BadGuySwarm swarm = game.getSwarm();
+        for (int i = 0; i < enemies; i++) {
+            int x;
+            int y;
+            if (i < badGuys.size()) {
+                x = badGuys.get(i).getX();
+                y = badGuys.get(i).getY();
+            } else {
+                x = swarm.getX(i - badGuys.size());
+                y = swarm.getY(i - badGuys.size());
+            }
+            int code = ReplayFormat.enemyCode(x - enemyX[i], y - enemyY[i]);
+            if (code == ReplayFormat.ENEMY_JUMP) {
+                jumps[jumpCount++] = i;
+            }
+            enemyX[i] = x;
+            enemyY[i] = y;
+            if ((i & 1) == 1) {
+                packed = code;
+            } else {
+                out.put((byte) (packed | code << 4));
+            }
+        }
+        if ((enemies & 1) == 0) {
+            out.put((byte) packed);
+        }
+        if (robotCode == ReplayFormat.ROBOT_JUMP) {
+            ReplayFormat.putVarInt(out, newRobotX);
+            ReplayFormat.putVarInt(out, newRobotY);
+        }
+        robotX = newRobotX;
+        robotY = newRobotY;
+        ReplayFormat.putVarInt(out, jumpCount);
+        for (int j = 0; j < jumpCount; j++) {
+            ReplayFormat.putVarInt(out, jumps[j]);
+            ReplayFormat.putVarInt(out, enemyX[jumps[j]]);
+            ReplayFormat.putVarInt(out, enemyY[jumps[j]]);
+        }
+        writer.writeRecord(ReplayFormat.RECORD_TICK);
+    }
+
+    private void writeSnapshot() throws IOException {
+        World world = game.getWorld();
+        int size = world.getSize();
+        List<Coin> coins = game.getCoins();
+        List<PowerUp> powerUps = world.getPowerUps();
+        ByteBuffer out = writer.payload(4 * 3 + 8 + 4 * 3 + 4 + coins.size() * 12
+                + 4 + powerUps.size() * 9 + 4 + enemyX.length * 8 + 4 + bitsetBytes(size));
+
+        out.putInt(tick);
+        out.putInt(robotX);
+        out.putInt(robotY);
+        out.putDouble(game.getRobot().getMoney());
+        out.putInt(game.getMoveCount());
+        out.putInt(game.getScore());
+        out.putInt(game.getCoinsCollected());
+        out.putInt(coins.size());
+        for (Coin coin : coins) {
+            out.putInt(coin.getX());
+            out.putInt(coin.getY());
+            out.putInt(coin.getValue());
+        }
+        out.putInt(powerUps.size());
+        for (PowerUp powerUp : powerUps) {
+            out.putInt(powerUp.getX());
+            out.putInt(powerUp.getY());
+            out.put((byte) powerUp.getType().ordinal());
+        }
+        out.putInt(enemyX.length);
+        for (int i = 0; i < enemyX.length; i++) {
+            out.putInt(enemyX[i]);
+            out.putInt(enemyY[i]);
+        }
+        byte[] visited = new byte[bitsetBytes(size)];
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                if (world.isVisited(x, y)) {
+                    setBit(visited, x * size + y);
+                }
+            }
+        }
+        out.putInt(visited.length);
+        out.put(visited);
+        writer.writeRecord(ReplayFormat.RECORD_SNAPSHOT);
+    }
+
+    private int enemyCount() {
+        BadGuySwarm swarm = game.getSwarm();
+        return game.getBadGuys().size() + (swarm == null ? 0 : swarm.size());
+    }
+
+    private void readEnemies(int[] xs, int[] ys) {
+        List<BadGuy> badGuys = game.getBadGuys();
+        for (int i = 0; i < badGuys.size(); i++) {
+            xs[i] = badGuys.get(i).getX();
+            ys[i] = badGuys.get(i).getY();
+        }
+        BadGuySwarm swarm = game.getSwarm();
+        for (int i = 0; swarm != null && i < swarm.size(); i++) {
+            xs[badGuys.size() + i] = swarm.getX(i);
+            ys[badGuys.size() + i] = swarm.getY(i);
+        }
+    }
+
+    private static int bitsetBytes(int size) {
+        return (size * size + 7) / 8;
+    }
+
+    private static void setBit(byte[] bits, int index) {
+        bits[index >> 3] |= (byte) (1 << (index & 7));
+    }
+
+    //Getters
+    public int getTick() {
+        return tick;
+    }
+
+    /**
+     * Flushes and closes the replay file. The game keeps this recorder as its
+     * sink, so switch the game to another sink before playing on.
+     * @throws IOException If the file cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
@@ -0,0 +1,101 @@
+package goforthegold.replay;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Appends framed records to a replay file through a single direct buffer,
+ * so a recorded game costs one channel write per 64 KB instead of one per move.
+ */
+class ReplayWriter implements Closeable {
+    private static final int BUFFER_BYTES = 64 * 1024;
+
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private ByteBuffer payload;
+
+    /**
+     * Opens a replay file for writing, replacing any existing file.
+     * @param path The file to write
+     * @throws IOException If the file cannot be opened
+     */
+    ReplayWriter(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        this.buffer = ByteBuffer.allocateDirect(BUFFER_BYTES);
+        this.payload = ByteBuffer.allocate(256);
+    }
+
+    /**
+     * Writes the file header.
+     */
+    void writeHeader(long seed, int gridSize, int difficulty, int snapshotInterval) throws IOException {
+        ensure(ReplayFormat.HEADER_BYTES);
+        buffer.putInt(ReplayFormat.MAGIC);
+        buffer.putShort(ReplayFormat.VERSION);
+        buffer.putLong(seed);
+        buffer.putInt(gridSize);
+        buffer.put((byte) difficulty);
+        buffer.putInt(snapshotInterval);
+    }
+
+    /**
+     * Gets a cleared scratch buffer for the next record's payload.
+     * @param capacity The most bytes the payload can take
+     * @return The scratch buffer
+     */
+    ByteBuffer payload(int capacity) {
+        if (payload.capacity() < capacity) {
+            payload = ByteBuffer.allocate(Math.max(capacity, payload.capacity() * 2));
+        }
+        payload.clear();
+        return payload;
+    }
+
+    /**
+     * Writes the scratch payload as a record of the given type.
+     * @param type One of the record type constants in {@link ReplayFormat}
+     */
+    void writeRecord(byte type) throws IOException {
+        payload.flip();
+        ensure(ReplayFormat.RECORD_HEADER_BYTES);
+        buffer.put(type);
+        buffer.putInt(payload.remaining());
+        if (payload.remaining() > buffer.remaining()) {
+            // Too big to stage; flush what we have and write it straight through
+            flush();
+            while (payload.hasRemaining()) {
+                channel.write(payload);
+            }
+        } else {
+            buffer.put(payload);
+        }
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush();
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package goforthegold.view;
+
+import java.awt.Color;
+import java.awt.Graphics;
+
+/**
+ * Draws the pieces of the game board. The Swing board and the headless
+ * frame exporter both use it, so saved frames look like the game window.
+ */
+public final class BoardPainter {
+    public static final Color BACKGROUND = new Color(0xEEEEEE);
+    public static final Color GRID = Color.LIGHT_GRAY;
+    public static final Color OBSTACLE = Color.DARK_GRAY;
+    public static final Color ROBOT = Color.BLUE;
+    public static final Color GOLD = Color.YELLOW;
+    public static final Color BAD_GUY = Color.RED;
+    public static final Color COIN = Color.GREEN;
+    public static final Color VISITED = new Color(200, 200, 255, 100); // Light blue with transparency
+    public static final Color POWER_UP = Color.MAGENTA;
+
+    private BoardPainter() {
+    }
+
+    /**
+     * Draws the grid lines around a block of cells.
+     * @param g The graphics to draw on
+     * @param minX The first column
+     * @param minY The first row
+     * @param maxX The last column
+     * @param maxY The last row
+     * @param cellSize The cell size in pixels
+     */
+    public static void paintGrid(Graphics g, int minX, int minY, int maxX, int maxY, int cellSize) {
+        g.setColor(GRID);
+        for (int i = minX; i <= maxX + 1; i++) {
+            g.drawLine(i * cellSize, minY * cellSize, i * cellSize, (maxY + 1) * cellSize);
+        }
+        for (int i = minY; i <= maxY + 1; i++) {
+            g.drawLine(minX * cellSize, i * cellSize, (maxX + 1) * cellSize, i * cellSize);
+        }
+    }
+
+    public static void paintObstacle(Graphics g, int x, int y, int cellSize) {
+        g.setColor(OBSTACLE);
+        g.fillRect(x * cellSize, y * cellSize, cellSize, cellSize);
+    }
+
+    public static void paintRobot(Graphics g, int x, int y, int cellSize) {
+        g.setColor(ROBOT);
+        g.fillOval(x * cellSize, y * cellSize, cellSize, cellSize);
+    }
+
+    public static void paintGold(Graphics g, int x, int y, int cellSize) {
+        g.setColor(GOLD);
+        g.fillRect(x * cellSize, y * cellSize, cellSize, cellSize);
+    }
+
+    public static void paintBadGuy(Graphics g, int x, int y, int cellSize) {
+        g.setColor(BAD_GUY);
+        g.fillRect(x * cellSize, y * cellSize, cellSize, cellSize);
+    }
+
+    public static void paintCoin(Graphics g, int x, int y, int cellSize) {
+        g.setColor(COIN);
+        g.fillOval(x * cellSize + cellSize/4, y * cellSize + cellSize/4, cellSize/2, cellSize/2);
+    }
+
+    public static void paintVisited(Graphics g, int x, int y, int cellSize) {
+        g.setColor(VISITED);
+        g.fillRect(x * cellSize, y * cellSize, cellSize, cellSize);
+    }
+
+    public static void paintPowerUp(Graphics g, int x, int y, int cellSize) {
+        g.setColor(POWER_UP);
+        g.fillOval(x * cellSize + cellSize/4, y * cellSize + cellSize/4, cellSize/2, cellSize/2);
+    }
+}
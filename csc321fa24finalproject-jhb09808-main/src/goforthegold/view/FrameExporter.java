@@ -0,0 +1,128 @@
+package goforthegold.view;
+
+import goforthegold.replay.ReplayFrame;
+import goforthegold.replay.ReplayReader;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+import javax.imageio.ImageIO;
+
+/**
+ * Renders the frames of a replay into off-screen images and saves them as
+ * numbered PNG files, without a display.
+ *
+ * Frames are independent: each worker seeks the shared reader to its tick,
+ * which is safe because seeking only reads the mapped file. Rendering and
+ * PNG encoding, the slow parts, run on all cores.
+ */
+public class FrameExporter {
+    private final ReplayReader reader;
+    private final int cellSize;
+
+    /**
+     * Constructs a new FrameExporter.
+     * @param reader The replay to export
+     * @param cellSize The size of a cell in pixels
+     */
+    public FrameExporter(ReplayReader reader, int cellSize) {
+        this.reader = reader;
+        this.cellSize = Math.max(1, cellSize);
+    }
+
+    /**
+     * Draws one frame the way the game window does.
+     * @param frame The frame to draw
+     * @return The image
+     */
+    public BufferedImage render(ReplayFrame frame) {
+        int size = frame.getSize();
+        int pixels = size * cellSize + 1;
+        BufferedImage image = new BufferedImage(pixels, pixels, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setColor(BoardPainter.BACKGROUND);
+        g.fillRect(0, 0, pixels, pixels);
+
+        BoardPainter.paintGrid(g, 0, 0, size - 1, size - 1, cellSize);
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                if (frame.isObstacle(x, y)) {
+                    BoardPainter.paintObstacle(g, x, y, cellSize);
+                }
+            }
+        }
+        BoardPainter.paintRobot(g, frame.getRobotX(), frame.getRobotY(), cellSize);
+        BoardPainter.paintGold(g, frame.getGoldX(), frame.getGoldY(), cellSize);
+        for (int i = 0; i < frame.getEnemyCount(); i++) {
+            BoardPainter.paintBadGuy(g, frame.getEnemyX(i), frame.getEnemyY(i), cellSize);
+        }
+        for (int i = 0; i < frame.getCoinCount(); i++) {
+            BoardPainter.paintCoin(g, frame.getCoinX(i), frame.getCoinY(i), cellSize);
+        }
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                if (frame.isVisited(x, y)) {
+                    BoardPainter.paintVisited(g, x, y, cellSize);
+                }
+            }
+        }
+        for (int i = 0; i < frame.getPowerUpCount(); i++) {
+            BoardPainter.paintPowerUp(g, frame.getPowerUpX(i), frame.getPowerUpY(i), cellSize);
+        }
+        g.dispose();
+        return image;
+    }
+
+    /**
+     * Exports every step-th tick from one tick to another as
+     * frame_000000.png, frame_000001.png and so on, numbered by tick.
+     * @param directory The directory to write to; created if missing
+     * @param fromTick The first tick
+     * @param toTick The last tick, inclusive
+     * @param step The number of ticks between frames
+     * @param threads The number of worker threads
+     * @return The number of frames written
+     * @throws IOException If the directory or a frame cannot be written
+     */
+    public int export(Path directory, int fromTick, int toTick, int step, int threads) throws IOException {
+        Files.createDirectories(directory);
+        int first = Math.max(0, fromTick);
+        int last = Math.min(toTick, reader.getTickCount());
+        int stride = Math.max(1, step);
+        int frames = last < first ? 0 : (last - first) / stride + 1;
+
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, threads));
+        try {
+            pool.submit(() -> IntStream.range(0, frames).parallel().forEach(i -> {
+                int tick = first + i * stride;
+                Path file = directory.resolve(String.format("frame_%06d.png", tick));
+                try {
+                    ImageIO.write(render(reader.seek(tick)), "png", file.toFile());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            })).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Export interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            }
+            throw new IllegalStateException("Export failed", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+        return frames;
+    }
+
+    //Getters
+    public int getCellSize() {
+        return cellSize;
+    }
+}
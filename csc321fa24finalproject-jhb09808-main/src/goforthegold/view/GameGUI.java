@@ -1,28 +1,48 @@
 package goforthegold.view;
 
+import goforthegold.controller.FrameSnapshot;
+import goforthegold.controller.GameEventSink;
 import goforthegold.controller.GameManager;
+import goforthegold.controller.SimulationRunner;
 import goforthegold.model.*;
 
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.InputEvent;
+import java.awt.image.BufferedImage;
 
 /**
  * Main GUI class for the Go for the Gold game.
  * This class handles the game visualization and user interactions.
+ * The game runs on a {@link SimulationRunner} thread; the event dispatch
+ * thread only sends it commands and draws the latest frame it published.
  */
 public class GameGUI extends JFrame {
-    private GameManager game;
     private GameBoard gameBoard;
     private JButton newGameButton;
     private JButton resetButton;
     private JButton undoButton;
+    private JButton pauseButton;
+    private JButton stepButton;
+    private JButton zoomInButton;
+    private JButton zoomOutButton;
+    private JToggleButton fastForwardButton;
+    private JComboBox<Integer> tickRateComboBox;
     private JComboBox<Difficulty> difficultyComboBox;
     private JLabel statusLabel;
     private JLabel earningsLabel;
     private JLabel scoreLabel;
     private JLabel moveCountLabel;
     private Timer timer;
+    private SimulationRunner runner;
+    private Difficulty difficulty;
+    private boolean paused;
+    private long shownSequence;
+    private int reportedGameId;
     private static final long serialVersionUID = 1L;
+    private static final int FRAME_MILLIS = 15;
+    private static final Integer[] TICK_RATES = {10, 50, 200, 1000, 5000};
+    private static final int FAST_FORWARD_SPEED = 10;
     private int gridSize;
 
     /**
@@ -38,12 +58,22 @@ public class GameGUI extends JFrame {
         setLayout(new BorderLayout());
 
         gameBoard = new GameBoard();
-        add(gameBoard, BorderLayout.CENTER);
+        JScrollPane scrollPane = new JScrollPane(gameBoard);
+        int viewSize = gameBoard.getInitialViewSize(gridSize);
+        scrollPane.getViewport().setPreferredSize(new Dimension(viewSize, viewSize));
+        add(scrollPane, BorderLayout.CENTER);
 
         JPanel controlPanel = new JPanel();
         newGameButton = new JButton("New Game");
         resetButton = new JButton("Reset Game");
         undoButton = new JButton("Undo Move");
+        pauseButton = new JButton("Pause");
+        stepButton = new JButton("Step");
+        stepButton.setEnabled(false);
+        fastForwardButton = new JToggleButton("Fast Forward");
+        zoomInButton = new JButton("Zoom In");
+        zoomOutButton = new JButton("Zoom Out");
+        tickRateComboBox = new JComboBox<>(TICK_RATES);
         difficultyComboBox = new JComboBox<>(Difficulty.values());
         statusLabel = new JLabel("Welcome to Go for the Gold!");
         earningsLabel = new JLabel("Total Earnings: $0");
@@ -55,6 +85,13 @@ public class GameGUI extends JFrame {
         controlPanel.add(newGameButton);
         controlPanel.add(resetButton);
         controlPanel.add(undoButton);
+        controlPanel.add(pauseButton);
+        controlPanel.add(stepButton);
+        controlPanel.add(fastForwardButton);
+        controlPanel.add(zoomInButton);
+        controlPanel.add(zoomOutButton);
+        controlPanel.add(new JLabel("Ticks/sec:"));
+        controlPanel.add(tickRateComboBox);
         controlPanel.add(difficultyComboBox);
         controlPanel.add(statusLabel);
         controlPanel.add(earningsLabel);
@@ -63,8 +100,15 @@ public class GameGUI extends JFrame {
         newGameButton.addActionListener(e -> startNewGame());
         resetButton.addActionListener(e -> resetGame());
         undoButton.addActionListener(e -> undoMove());
+        pauseButton.addActionListener(e -> togglePause());
+        stepButton.addActionListener(e -> runner.step());
+        fastForwardButton.addActionListener(e -> runner.setSpeed(fastForwardButton.isSelected() ? FAST_FORWARD_SPEED : 1));
+        zoomInButton.addActionListener(e -> gameBoard.zoom(1));
+        zoomOutButton.addActionListener(e -> gameBoard.zoom(-1));
+        tickRateComboBox.addActionListener(e -> runner.setTickRate((Integer) tickRateComboBox.getSelectedItem()));
 
-        timer = new Timer(100, e -> updateGame());
+        runner = new SimulationRunner();
+        timer = new Timer(FRAME_MILLIS, e -> updateGame());
 
         pack();
         setLocationRelativeTo(null);
@@ -74,25 +118,21 @@ public class GameGUI extends JFrame {
      * Starts a new game with the selected difficulty.
      */
     private void startNewGame() {
-        Difficulty difficulty = (Difficulty) difficultyComboBox.getSelectedItem();
-        game = new GameManager(gridSize, difficulty);
-        gameBoard.setGame(game);
+        difficulty = (Difficulty) difficultyComboBox.getSelectedItem();
+        GameManager game = new GameManager(gridSize, difficulty);
+        game.setEventSink(GameEventSink.SILENT);
+        runner.start(game);
         timer.start();
         statusLabel.setText("Game started. Difficulty: " + difficulty + ", Grid Size: " + gridSize + "x" + gridSize);
-        updateEarnings();
-        updateStatus();
     }
 
     /**
      * Resets the current game to its initial state.
      */
     private void resetGame() {
-        if (game != null) {
-            game.resetGame();
-            gameBoard.repaint();
-            statusLabel.setText("Game reset. Difficulty: " + game.getDifficulty());
-            updateEarnings();
-            updateStatus();
+        if (difficulty != null) {
+            runner.resetGame();
+            statusLabel.setText("Game reset. Difficulty: " + difficulty);
         }
     }
 
@@ -100,91 +140,338 @@ public class GameGUI extends JFrame {
      * Undoes the last move in the game.
      */
     private void undoMove() {
-        if (game != null && game.undoMove()) {
-            gameBoard.repaint();
-            updateStatus();
-        }
+        runner.undoMove();
     }
 
     /**
-     * Updates the game state and GUI.
+     * Pauses or resumes the simulation.
      */
-    private void updateGame() {
-        if (game != null && !game.isGameOver()) {
-            game.makeMove();
-            gameBoard.repaint();
-            updateStatus();
-        } else if (game != null && game.isGameOver()) {
-            timer.stop();
-            showGameOverMessage();
+    private void togglePause() {
+        paused = !paused;
+        if (paused) {
+            runner.pause();
+            pauseButton.setText("Resume");
+        } else {
+            runner.resume();
+            pauseButton.setText("Pause");
         }
+        stepButton.setEnabled(paused);
     }
 
     /**
-     * Updates the status labels in the GUI.
+     * Called every frame; draws the latest frame the simulation published,
+     * if there is a new one.
      */
-    private void updateStatus() {
-        if (game != null) {
-            statusLabel.setText("Robot money: $" + game.getRobot().getMoney() + 
-                                " | Coins left: " + game.getCoins().size());
-            scoreLabel.setText("Score: " + game.getScore());
-            moveCountLabel.setText("Moves: " + game.getMoveCount());
+    private void updateGame() {
+        FrameSnapshot frame = runner.getLatest();
+        if (frame == null || frame.getSequence() == shownSequence) {
+            return;
+        }
+        shownSequence = frame.getSequence();
+        gameBoard.show(frame);
+        updateStatus(frame);
+        if (frame.isFinished() && frame.getGameId() != reportedGameId) {
+            reportedGameId = frame.getGameId();
+            showGameOverMessage(frame);
         }
     }
 
     /**
-     * Updates the total earnings display.
+     * Updates the status labels in the GUI.
+     * 
+     * @param frame The frame being shown
      */
-    private void updateEarnings() {
-        if (game != null) {
-            earningsLabel.setText("Total Earnings: $" + game.getTotalEarnings());
-        }
+    private void updateStatus(FrameSnapshot frame) {
+        statusLabel.setText("Robot money: $" + frame.getMoney() + 
+                            " | Coins left: " + frame.getCoinsLeft());
+        scoreLabel.setText("Score: " + frame.getScore());
+        moveCountLabel.setText("Moves: " + frame.getMoveCount());
+        earningsLabel.setText("Total Earnings: $" + frame.getTotalEarnings());
     }
 
     /**
      * Displays the game over message and prompts for the player's name.
+     * 
+     * @param frame The final frame of the game
      */
-    private void showGameOverMessage() {
-        String message = game.getScoreBreakdown();
+    private void showGameOverMessage(FrameSnapshot frame) {
+        String message = frame.getScoreBreakdown();
         String playerName = JOptionPane.showInputDialog(this, message + "\nEnter your name:");
         if (playerName != null && !playerName.isEmpty()) {
-            game.endGame(playerName);
-            showHighScores();
-            updateEarnings();
+            runner.execute(game -> {
+                game.endGame(playerName);
+                String highScores = getHighScores(game);
+                SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(this, highScores));
+            });
         }
     }
 
     /**
-     * Displays the high scores.
+     * Builds the high score text. Runs on the simulation thread.
+     * 
+     * @param game The game whose score keeper to read
+     * @return The high scores
      */
-    private void showHighScores() {
+    private static String getHighScores(GameManager game) {
         StringBuilder sb = new StringBuilder("Top Scores:\n");
         for (Score score : game.getScoreKeeper().getTopScores()) {
             sb.append(score).append("\n");
         }
-        JOptionPane.showMessageDialog(this, sb.toString());
+        return sb.toString();
     }
 
     /**
      * Inner class representing the game board panel.
+     * The board sits in a scroll pane and can be zoomed. Only the cells in
+     * view are painted, so the cost of a frame depends on the size of the
+     * screen, not the size of the board. The grid lines and obstacles for
+     * the area around the view are drawn once into an image. Between frames
+     * only the cells that changed are repainted: where the robot and the bad
+     * guys were and are now, and the cells newly added to the visited log.
+     * When zoomed far out, the board is drawn from an overview image with
+     * one pixel per cell.
      */
     private class GameBoard extends JPanel {
-        private static final int CELL_SIZE = 50;
+        private static final int[] CELL_SIZES = {1, 2, 3, 6, 12, 25, 50};
+        private static final int OVERVIEW_CELL_SIZE = 4;
+        private static final int MAX_VIEW_SIZE = 800;
+        private static final int OVERVIEW_BACKGROUND = BoardPainter.BACKGROUND.getRGB();
+        private static final int OVERVIEW_VISITED = 0xC8C8FF; // Visited color without transparency
         private static final long serialVersionUID = 2L;
 
-        private GameManager game;
+        private FrameSnapshot frame;
+        private int zoomLevel = CELL_SIZES.length - 1;
+        private int cellSize = CELL_SIZES[zoomLevel];
+        private BufferedImage staticLayer;
+        private Rectangle staticBounds;
+        private BufferedImage overview;
+        private boolean[] visited = new boolean[0];
+        private int visitedApplied;
+        private int visitedEpoch;
+
+        GameBoard() {
+            addMouseWheelListener(e -> {
+                if ((e.getModifiersEx() & InputEvent.CTRL_DOWN_MASK) != 0) {
+                    zoom(-e.getWheelRotation());
+                } else {
+                    Container scrollPane = SwingUtilities.getAncestorOfClass(JScrollPane.class, this);
+                    if (scrollPane != null) {
+                        scrollPane.dispatchEvent(SwingUtilities.convertMouseEvent(this, e, scrollPane));
+                    }
+                }
+            });
+        }
+
+        /**
+         * Gets the zoom level at which a board of the given size first fits
+         * in the view, using the largest cells possible.
+         */
+        private int fittingZoomLevel(int gridSize) {
+            int level = CELL_SIZES.length - 1;
+            while (level > 0 && gridSize * CELL_SIZES[level] > MAX_VIEW_SIZE) {
+                level--;
+            }
+            return level;
+        }
+
+        /**
+         * Gets the side of the view in pixels for a board of the given size.
+         * 
+         * @param gridSize The size of the game grid
+         * @return The view size in pixels
+         */
+        public int getInitialViewSize(int gridSize) {
+            return Math.min(gridSize * CELL_SIZES[fittingZoomLevel(gridSize)], MAX_VIEW_SIZE);
+        }
 
         /**
-         * Sets the game manager for this game board.
+         * Shows a new frame, repainting only what changed since the last one.
+         * A new world, or a visited log that had cells removed, repaints the
+         * whole board.
          * 
-         * @param game The GameManager to set
+         * @param next The frame to show
          */
-        public void setGame(GameManager game) {
-            this.game = game;
-            setPreferredSize(new Dimension(game.getWorld().getSize() * CELL_SIZE, 
-                                           game.getWorld().getSize() * CELL_SIZE));
+        public void show(FrameSnapshot next) {
+            FrameSnapshot previous = frame;
+            frame = next;
+            boolean newWorld = !next.isSameWorld(previous);
+            if (newWorld) {
+                int size = next.getSize();
+                if (previous == null || previous.getSize() != size) {
+                    zoomLevel = fittingZoomLevel(size);
+                    cellSize = CELL_SIZES[zoomLevel];
+                }
+                staticLayer = null;
+                resize();
+            }
+            boolean full = newWorld || next.getVisitedEpoch() != visitedEpoch;
+            if (full) {
+                visited = new boolean[next.getSize() * next.getSize()];
+                visitedApplied = 0;
+                visitedEpoch = next.getVisitedEpoch();
+            }
+
+            int[] log = next.getVisitedLog();
+            for (int i = visitedApplied; i < next.getVisitedCount(); i++) {
+                int x = PatrolRoute.unpackX(log[i]);
+                int y = PatrolRoute.unpackY(log[i]);
+                visited[y * next.getSize() + x] = true;
+                if (!full) {
+                    repaintCell(x, y);
+                }
+            }
+            visitedApplied = next.getVisitedCount();
+
+            if (full) {
+                overview = null;
+                repaint();
+                return;
+            }
+            repaintCell(previous.getRobotX(), previous.getRobotY());
+            for (int cell : previous.getBadGuyCells()) {
+                repaintCell(PatrolRoute.unpackX(cell), PatrolRoute.unpackY(cell));
+            }
+            repaintCell(next.getRobotX(), next.getRobotY());
+            for (int cell : next.getBadGuyCells()) {
+                repaintCell(PatrolRoute.unpackX(cell), PatrolRoute.unpackY(cell));
+            }
+            if (overview != null) {
+                drawMovingPixels();
+            }
+        }
+
+        /**
+         * Zooms in or out by a number of steps, keeping the cell at the
+         * center of the view in the center.
+         * 
+         * @param steps Positive to zoom in, negative to zoom out
+         */
+        public void zoom(int steps) {
+            int level = Math.max(0, Math.min(CELL_SIZES.length - 1, zoomLevel + steps));
+            if (frame == null || level == zoomLevel) {
+                return;
+            }
+            Rectangle view = getVisibleRect();
+            double centerX = (view.x + view.width / 2.0) / cellSize;
+            double centerY = (view.y + view.height / 2.0) / cellSize;
+            zoomLevel = level;
+            cellSize = CELL_SIZES[level];
+            staticLayer = null;
+            resize();
+            if (getParent() instanceof JViewport) {
+                JViewport viewport = (JViewport) getParent();
+                int maxX = Math.max(0, getWidth() - viewport.getWidth());
+                int maxY = Math.max(0, getHeight() - viewport.getHeight());
+                int x = (int) (centerX * cellSize) - viewport.getWidth() / 2;
+                int y = (int) (centerY * cellSize) - viewport.getHeight() / 2;
+                viewport.setViewPosition(new Point(Math.max(0, Math.min(x, maxX)), Math.max(0, Math.min(y, maxY))));
+            }
+            repaint();
+        }
+
+        private void resize() {
+            int pixels = frame.getSize() * cellSize;
+            setPreferredSize(new Dimension(pixels, pixels));
+            setSize(pixels, pixels);
+            if (getParent() != null && getParent().getParent() instanceof JScrollPane) {
+                JScrollPane scrollPane = (JScrollPane) getParent().getParent();
+                scrollPane.getHorizontalScrollBar().setUnitIncrement(cellSize);
+                scrollPane.getVerticalScrollBar().setUnitIncrement(cellSize);
+            }
             revalidate();
         }
+
+        /**
+         * Draws the grid lines and obstacles for an area of the board into
+         * an image, so later repaints of that area only copy pixels.
+         */
+        private void buildStaticLayer(Rectangle bounds) {
+            staticBounds = bounds;
+            staticLayer = new BufferedImage(bounds.width, bounds.height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = staticLayer.createGraphics();
+            g.setColor(BoardPainter.BACKGROUND);
+            g.fillRect(0, 0, bounds.width, bounds.height);
+            g.translate(-bounds.x, -bounds.y);
+
+            int minX = bounds.x / cellSize;
+            int minY = bounds.y / cellSize;
+            int maxX = Math.min((bounds.x + bounds.width - 1) / cellSize, frame.getSize() - 1);
+            int maxY = Math.min((bounds.y + bounds.height - 1) / cellSize, frame.getSize() - 1);
+
+            BoardPainter.paintGrid(g, minX, minY, maxX, maxY, cellSize);
+            for (int x = minX; x <= maxX; x++) {
+                for (int y = minY; y <= maxY; y++) {
+                    if (frame.isObstacle(x, y)) {
+                        BoardPainter.paintObstacle(g, x, y, cellSize);
+                    }
+                }
+            }
+            g.dispose();
+        }
+
+        /**
+         * Draws the whole board at one pixel per cell. Moving pieces are
+         * drawn last, over the cell underneath.
+         */
+        private void buildOverview() {
+            int size = frame.getSize();
+            overview = new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB);
+            for (int x = 0; x < size; x++) {
+                for (int y = 0; y < size; y++) {
+                    overview.setRGB(x, y, frame.isObstacle(x, y) ? BoardPainter.OBSTACLE.getRGB()
+                            : isVisited(x, y) ? OVERVIEW_VISITED : OVERVIEW_BACKGROUND);
+                }
+            }
+            overview.setRGB(frame.getGoldX(), frame.getGoldY(), BoardPainter.GOLD.getRGB());
+            for (int cell : frame.getCoinCells()) {
+                overview.setRGB(PatrolRoute.unpackX(cell), PatrolRoute.unpackY(cell), BoardPainter.COIN.getRGB());
+            }
+            for (int cell : frame.getPowerUpCells()) {
+                overview.setRGB(PatrolRoute.unpackX(cell), PatrolRoute.unpackY(cell), BoardPainter.POWER_UP.getRGB());
+            }
+            drawMovingPixels();
+        }
+
+        /**
+         * Gets the overview color of a cell without its moving pieces.
+         */
+        private int cellColor(int x, int y) {
+            if (FrameSnapshot.contains(frame.getPowerUpCells(), x, y)) {
+                return BoardPainter.POWER_UP.getRGB();
+            }
+            if (FrameSnapshot.contains(frame.getCoinCells(), x, y)) {
+                return BoardPainter.COIN.getRGB();
+            }
+            if (frame.getGoldX() == x && frame.getGoldY() == y) {
+                return BoardPainter.GOLD.getRGB();
+            }
+            if (frame.isObstacle(x, y)) {
+                return BoardPainter.OBSTACLE.getRGB();
+            }
+            return isVisited(x, y) ? OVERVIEW_VISITED : OVERVIEW_BACKGROUND;
+        }
+
+        private void drawMovingPixels() {
+            for (int cell : frame.getBadGuyCells()) {
+                overview.setRGB(PatrolRoute.unpackX(cell), PatrolRoute.unpackY(cell), BoardPainter.BAD_GUY.getRGB());
+            }
+            overview.setRGB(frame.getRobotX(), frame.getRobotY(), BoardPainter.ROBOT.getRGB());
+        }
+
+        private boolean isVisited(int x, int y) {
+            return visited[y * frame.getSize() + x];
+        }
+
+        /**
+         * Marks a cell for repainting, and brings its overview pixel back to
+         * what lies under the moving pieces; those are drawn again after.
+         */
+        private void repaintCell(int x, int y) {
+            if (overview != null) {
+                overview.setRGB(x, y, cellColor(x, y));
+            }
+            repaint(x * cellSize, y * cellSize, cellSize, cellSize);
+        }
         
         /**
          * Highlights an attempted move on the game board.
@@ -196,73 +483,86 @@ public class GameGUI extends JFrame {
         public void highlightAttemptedMove(int x, int y) {
             Graphics g = getGraphics();
             g.setColor(Color.ORANGE);
-            g.drawRect(x * CELL_SIZE, y * CELL_SIZE, CELL_SIZE, CELL_SIZE);
+            g.drawRect(x * cellSize, y * cellSize, cellSize, cellSize);
             g.dispose();
         }
 
         @Override
         protected void paintComponent(Graphics g) {
             super.paintComponent(g);
-            if (game == null) return;
+            if (frame == null) return;
 
-            // Draw grid
-            g.setColor(Color.LIGHT_GRAY);
-            for (int i = 0; i <= game.getWorld().getSize(); i++) {
-                g.drawLine(i * CELL_SIZE, 0, i * CELL_SIZE, getHeight());
-                g.drawLine(0, i * CELL_SIZE, getWidth(), i * CELL_SIZE);
+            int size = frame.getSize();
+            Rectangle clip = g.getClipBounds();
+            if (clip == null) {
+                clip = getVisibleRect();
+            }
+            clip = clip.intersection(new Rectangle(0, 0, size * cellSize, size * cellSize));
+            if (clip.isEmpty()) {
+                return;
             }
+            int minX = clip.x / cellSize;
+            int minY = clip.y / cellSize;
+            int maxX = Math.min((clip.x + clip.width - 1) / cellSize, size - 1);
+            int maxY = Math.min((clip.y + clip.height - 1) / cellSize, size - 1);
 
-            //robot
-            g.setColor(Color.BLUE);
-            g.fillOval(game.getRobot().getX() * CELL_SIZE, game.getRobot().getY() * CELL_SIZE, 
-                       CELL_SIZE, CELL_SIZE);
-
-            //gold
-            g.setColor(Color.YELLOW);
-            g.fillRect(game.getGold().getX() * CELL_SIZE, game.getGold().getY() * CELL_SIZE, 
-                       CELL_SIZE, CELL_SIZE);
-
-            //bad guys
-            g.setColor(Color.RED);
-            for (BadGuy badGuy : game.getBadGuys()) {
-                g.fillRect(badGuy.getX() * CELL_SIZE, badGuy.getY() * CELL_SIZE, 
-                           CELL_SIZE, CELL_SIZE);
+            if (cellSize < OVERVIEW_CELL_SIZE) {
+                if (overview == null) {
+                    buildOverview();
+                }
+                g.drawImage(overview, minX * cellSize, minY * cellSize, (maxX + 1) * cellSize, (maxY + 1) * cellSize,
+                            minX, minY, maxX + 1, maxY + 1, null);
+                return;
             }
 
-            //coins
-            g.setColor(Color.GREEN);
-            for (Coin coin : game.getCoins()) {
-                g.fillOval(coin.getX() * CELL_SIZE + CELL_SIZE/4, coin.getY() * CELL_SIZE + CELL_SIZE/4, 
-                           CELL_SIZE/2, CELL_SIZE/2);
+            // Grid and obstacles, cached for the view plus a margin around it
+            if (staticLayer == null || !staticBounds.contains(clip)) {
+                Rectangle view = getVisibleRect();
+                Rectangle bounds = new Rectangle(view.x - view.width / 2, view.y - view.height / 2,
+                                                 view.width * 2, view.height * 2).union(clip);
+                buildStaticLayer(bounds.intersection(new Rectangle(0, 0, size * cellSize + 1, size * cellSize + 1)));
             }
+            g.drawImage(staticLayer, staticBounds.x, staticBounds.y, null);
 
-            //visited cells
-            g.setColor(new Color(200, 200, 255, 100)); // Light blue with transparency
-            for (int x = 0; x < game.getWorld().getSize(); x++) {
-                for (int y = 0; y < game.getWorld().getSize(); y++) {
-                    if (game.isVisited(x, y)) {
-                        g.fillRect(x * CELL_SIZE, y * CELL_SIZE, CELL_SIZE, CELL_SIZE);
-                    }
+            if (inClip(frame.getRobotX(), frame.getRobotY(), minX, minY, maxX, maxY)) {
+                BoardPainter.paintRobot(g, frame.getRobotX(), frame.getRobotY(), cellSize);
+            }
+            if (inClip(frame.getGoldX(), frame.getGoldY(), minX, minY, maxX, maxY)) {
+                BoardPainter.paintGold(g, frame.getGoldX(), frame.getGoldY(), cellSize);
+            }
+            for (int cell : frame.getBadGuyCells()) {
+                int x = PatrolRoute.unpackX(cell);
+                int y = PatrolRoute.unpackY(cell);
+                if (inClip(x, y, minX, minY, maxX, maxY)) {
+                    BoardPainter.paintBadGuy(g, x, y, cellSize);
                 }
             }
-
-            //obstacles
-            g.setColor(Color.DARK_GRAY);
-            for (int x = 0; x < game.getWorld().getSize(); x++) {
-                for (int y = 0; y < game.getWorld().getSize(); y++) {
-                    if (game.getWorld().isObstacle(x, y)) {
-                        g.fillRect(x * CELL_SIZE, y * CELL_SIZE, CELL_SIZE, CELL_SIZE);
+            for (int cell : frame.getCoinCells()) {
+                int x = PatrolRoute.unpackX(cell);
+                int y = PatrolRoute.unpackY(cell);
+                if (inClip(x, y, minX, minY, maxX, maxY)) {
+                    BoardPainter.paintCoin(g, x, y, cellSize);
+                }
+            }
+            for (int x = minX; x <= maxX; x++) {
+                for (int y = minY; y <= maxY; y++) {
+                    if (isVisited(x, y)) {
+                        BoardPainter.paintVisited(g, x, y, cellSize);
                     }
                 }
             }
-
-            //power-ups
-            g.setColor(Color.MAGENTA);
-            for (PowerUp powerUp : game.getWorld().getPowerUps()) {
-                g.fillOval(powerUp.getX() * CELL_SIZE + CELL_SIZE/4, powerUp.getY() * CELL_SIZE + CELL_SIZE/4, 
-                           CELL_SIZE/2, CELL_SIZE/2);
+            for (int cell : frame.getPowerUpCells()) {
+                int x = PatrolRoute.unpackX(cell);
+                int y = PatrolRoute.unpackY(cell);
+                if (inClip(x, y, minX, minY, maxX, maxY)) {
+                    BoardPainter.paintPowerUp(g, x, y, cellSize);
+                }
             }
         }
+
+        private boolean inClip(int x, int y, int minX, int minY, int maxX, int maxY) {
+            return x >= minX && x <= maxX && y >= minY && y <= maxY;
+        }
     }
 
     /**